@@ -0,0 +1,24 @@
+package com.avisto.jpasearch.cache;
+
+/**
+ * Statistics of a {@link SearchCache}.
+ *
+ * @param hits Number of lookups that found a valid cached value
+ * @param misses Number of lookups that had to load the value
+ * @param evictions Number of values evicted because the cache was full
+ * @param size Current number of cached values
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public record CacheStatistics(long hits, long misses, long evictions, int size) {
+
+    /**
+     * Return the ratio of lookups that found a valid cached value, 0 if there was no lookup.
+     * @return Hit rate between 0 and 1
+     */
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
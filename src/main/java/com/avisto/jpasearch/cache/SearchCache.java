@@ -0,0 +1,128 @@
+package com.avisto.jpasearch.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Size and time bounded cache of search results. The least recently used entry is evicted once the maximum size
+ * is reached, and entries expire after the time to live. Entries are tagged with the root entity class of their search,
+ * so that a change of an entity of this class invalidates them : see {@link SearchCacheListener}.
+ * <p>
+ * Cached elements are shared between callers. Entities are detached from the entity manager that loaded them,
+ * mapping them into DTOs is recommended.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public final class SearchCache {
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Map<Object, Entry> entries;
+
+    /**
+     * Incremented by each invalidation : a value loaded while the generation changed may be stale and is not cached.
+     */
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private SearchCache(int maximumSize, Duration timeToLive) {
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        // Access order : iteration starts with the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param maximumSize Maximum number of cached results
+     * @param timeToLive Time after which a cached result expires
+     * @return SearchCache
+     */
+    public static SearchCache of(int maximumSize, Duration timeToLive) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        return new SearchCache(maximumSize, timeToLive);
+    }
+
+    /**
+     * Get the cached value of a key, loading and caching it if it is missing or expired.
+     * The loader runs outside the lock of the cache : concurrent misses of the same key may load it several times.
+     * A value whose load overlaps an invalidation is returned but not cached, since it may have been read before the change.
+     *
+     * @param key The key of the value, with equals and hashCode
+     * @param rootClazz The root entity class of the search, whose changes invalidate the value
+     * @param loader Loader of the value
+     * @return The value
+     * @param <V> Value type
+     */
+    public <V> V get(Object key, Class<?> rootClazz, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return (V) entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        V value = loader.get();
+        synchronized (this) {
+            if (generation != loadGeneration) {
+                return value;
+            }
+            entries.put(key, new Entry(rootClazz, value, System.nanoTime() + timeToLiveNanos));
+            if (entries.size() > maximumSize) {
+                Iterator<Entry> iterator = entries.values().iterator();
+                iterator.next();
+                iterator.remove();
+                evictions++;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Invalidate the results whose root entity class is the given class or one of its superclasses.
+     *
+     * @param entityClazz Class of the changed entity
+     */
+    public synchronized void invalidate(Class<?> entityClazz) {
+        generation++;
+        entries.values().removeIf(entry -> entry.rootClazz.isAssignableFrom(entityClazz));
+    }
+
+    /**
+     * Invalidate every cached result.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Get the hit and miss statistics of the cache.
+     *
+     * @return CacheStatistics
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size());
+    }
+
+    private record Entry(Class<?> rootClazz, Object value, long expiresAt) {
+    }
+}
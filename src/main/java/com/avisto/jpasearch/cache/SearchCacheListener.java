@@ -0,0 +1,49 @@
+package com.avisto.jpasearch.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Entity listener invalidating the registered caches when an entity is persisted, updated or removed.
+ * Declare it on the searchable entities with {@code @EntityListeners(SearchCacheListener.class)}, then register
+ * the caches with {@link SearchCacheListener#register(SearchCache)}.
+ * <p>
+ * Only the results whose root entity class is the class of the changed entity are invalidated : results filtered
+ * on joined entities have to be invalidated with {@link SearchCache#invalidate(Class)}, or rely on the time to live.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public class SearchCacheListener {
+
+    // The persistence provider instantiates the listeners itself : the caches can only be found statically
+    private static final Set<SearchCache> CACHES = new CopyOnWriteArraySet<>();
+
+    /**
+     * Invalidate the given cache on every change of a listened entity.
+     *
+     * @param searchCache The cache
+     */
+    public static void register(SearchCache searchCache) {
+        CACHES.add(searchCache);
+    }
+
+    /**
+     * Stop invalidating the given cache.
+     *
+     * @param searchCache The cache
+     */
+    public static void unregister(SearchCache searchCache) {
+        CACHES.remove(searchCache);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        CACHES.forEach(searchCache -> searchCache.invalidate(entity.getClass()));
+    }
+}
@@ -8,16 +8,18 @@ import com.avisto.jpasearch.model.FieldPathObject;
 import com.avisto.jpasearch.service.CastService;
 import com.avisto.jpasearch.service.SearchUtils;
 
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-import static com.avisto.jpasearch.service.SearchConstants.Strings.REGEX_DOT;
 
 /**
  * This class contains the FilterOperation, the key and the paths to create a filter that you can call with the search method.
@@ -33,11 +35,20 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
     private final IFilterOperation<T> filterOperation;
     private final String key;
     private final List<String> paths;
+    private final boolean exists;
+    private final List<FieldPathObject> fieldPaths;
 
     protected FilterConfig(String key, IFilterOperation<T> filterOperation, List<String> paths) {
+        this(key, filterOperation, paths, false);
+    }
+
+    protected FilterConfig(String key, IFilterOperation<T> filterOperation, List<String> paths, boolean exists) {
         this.filterOperation = filterOperation;
         this.key = key;
         this.paths = paths;
+        this.exists = exists;
+        // Configurations are constants : their paths are parsed once, not on every predicate
+        this.fieldPaths = paths.stream().map(FieldPathObject::of).toList();
     }
 
     public static <R extends SearchableEntity, T> FilterConfig<R, T> of(String key, IFilterOperation<T> filterOperation, String pathFirst, String... paths) {
@@ -49,6 +60,27 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
         return new FilterConfig<>(key, filterOperation, result);
     }
 
+    /**
+     * Create a filter whose collection paths, such as {@code files[name]}, are rendered as correlated EXISTS subqueries
+     * instead of joins. The root rows are then never duplicated : counts and pages need neither distinct nor a second query.
+     *
+     * @param key Key of the filter
+     * @param filterOperation Operation of the filter
+     * @param pathFirst First path of the filter
+     * @param paths Other paths of the filter
+     * @return FilterConfig
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     * @param <T> Filter type.
+     */
+    public static <R extends SearchableEntity, T> FilterConfig<R, T> ofExists(String key, IFilterOperation<T> filterOperation, String pathFirst, String... paths) {
+        List<String> result = new ArrayList<>();
+        result.add(pathFirst);
+        if (paths != null) {
+            result.addAll(List.of(paths));
+        }
+        return new FilterConfig<>(key, filterOperation, result, true);
+    }
+
     @Override
     public String getKey() {
         return key;
@@ -78,7 +110,7 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
         if (filterOperation.getOperationType() != Void.class && !filterOperation.getOperationType().isAssignableFrom(sanitizeEntryClazz)) {
             throw new FilterOperationException(String.format("Filter Operation with operation type %s cannot be assigned to %s", filterOperation.getOperationType(), entryClazz));
         }
-        if (paths.stream().anyMatch(path -> SearchUtils.getEntityClass(rootClazz, path.split(REGEX_DOT)) != targetClazz)) {
+        if (paths.stream().anyMatch(path -> SearchUtils.getEntityClass(rootClazz, path) != targetClazz)) {
             throw new WrongDataTypeException("Filter config cannot filter on 2 different object types");
         }
     }
@@ -98,11 +130,11 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
             sanitizeEntryClazz = SearchUtils.getObjectTypeFromPrimitiveType(entryClazz);
         }
         return (filterOperation.getOperationType() == Void.class || filterOperation.getOperationType().isAssignableFrom(sanitizeEntryClazz)) &&
-                paths.stream().allMatch(path -> SearchUtils.getEntityClass(rootClazz, path.split(REGEX_DOT)) == targetClazz);
+                paths.stream().allMatch(path -> SearchUtils.getEntityClass(rootClazz, path) == targetClazz);
     }
 
     private List<FieldPathObject> getDefaultFieldPath() {
-        return this.paths.stream().map(FieldPathObject::of).toList();
+        return this.fieldPaths;
     }
 
     public String getFirstPath() {
@@ -118,42 +150,75 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
      * @param joins joins
      * @param value Value use to filter
      * @return Predicate
+     * @throws FilterOperationException If the filter is created with {@link FilterConfig#ofExists} and has collection paths,
+     * which can only be rendered as subqueries of a query
      */
     @Override
     public Predicate getPredicate(Class<R> rootClazz, Root<R> root, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, T value) {
+        return getPredicate(rootClazz, root, null, cb, joins, value);
+    }
+
+    /**
+     * This method returns a predicate by applying a filter in the given query.
+     * The collection paths of a filter created with {@link FilterConfig#ofExists} are rendered as EXISTS subqueries of this query :
+     * they are never joined to the root, as {@link FilterConfig#needJoin()} tells the repository.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param root Root
+     * @param query Query in which the predicate is used
+     * @param cb Criteria Builder
+     * @param joins joins
+     * @param value Value use to filter, as returned by bind : the values of a multiple values filter are already cast
+     * @return Predicate
+     * @throws FilterOperationException If the filter is created with {@link FilterConfig#ofExists}, has collection paths and there is no query
+     */
+    @Override
+    public Predicate getPredicate(Class<R> rootClazz, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, T value) {
         List<Predicate> orPredicates = new ArrayList<>();
-        getDefaultFieldPath().forEach(
-                fieldPath -> {
-                    String stringBasePath = fieldPath.getLeft();
-                    Path<String> path;
-                    if (fieldPath.needsJoin()) {
-                        if (!joins.containsKey(stringBasePath)) {
-                            joins.put(stringBasePath, getJoin(root, stringBasePath));
-                        }
-                        path = SearchUtils.getPath(joins.get(stringBasePath), fieldPath.getRight());
-                    }
-                    else {
-                        path = SearchUtils.getPath(root, stringBasePath);
-                    }
-                    if (filterOperation.needsMultipleValues()) {
-                        Class<?> targetClazz = getTargetClass(rootClazz);
-                        orPredicates.add(filterOperation.calculate(
-                                cb,
-                                path,
-                                (T) ((List<String>) value).stream().map(v -> CastService.cast(v, targetClazz)).toList())
-                        );
-                    } else {
-                        orPredicates.add(filterOperation.calculate(
-                                cb,
-                                path,
-                                value
-                        ));
-                    }
+        for (FieldPathObject fieldPath : getDefaultFieldPath()) {
+            String stringBasePath = fieldPath.getLeft();
+            if (fieldPath.needsJoin() && exists) {
+                if (query == null) {
+                    throw new FilterOperationException(String.format("Filter %s tests a collection in a subquery and needs the query it is used in", key));
                 }
-        );
+                // Semi-join : the collection is joined in a subquery correlated to the root, which is never duplicated
+                Subquery<Integer> subquery = query.subquery(Integer.class);
+                Root<R> correlatedRoot = subquery.correlate(root);
+                Path<String> path = fieldPath.getRightPath(getJoin(correlatedRoot, stringBasePath));
+                subquery.select(cb.nullLiteral(Integer.class)).where(filterOperation.calculate(cb, path, value));
+                orPredicates.add(cb.exists(subquery));
+                continue;
+            }
+            Path<String> path;
+            if (fieldPath.needsJoin()) {
+                path = fieldPath.getRightPath(getJoin(root, joins, stringBasePath));
+            }
+            else {
+                path = fieldPath.getLeftPath(root);
+            }
+            orPredicates.add(filterOperation.calculate(cb, path, value));
+        }
         return cb.or(orPredicates.toArray(Predicate[]::new));
     }
 
+    /**
+     * Convert the raw values of a search into the value given to getPredicate.
+     * The values of a multiple values filter are cast one by one into the class of the filtered field.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param entryClazz Entry class of the filter, as returned by getEntryClass
+     * @param values Raw values of the filter
+     * @return Value use to filter
+     */
+    @Override
+    public T bind(Class<R> rootClazz, Class<T> entryClazz, String[] values) {
+        if (filterOperation.needsMultipleValues()) {
+            Class<?> targetClazz = getTargetClass(rootClazz);
+            return (T) Arrays.stream(values).map(v -> CastService.cast(v, targetClazz)).toList();
+        }
+        return IFilterConfig.super.bind(rootClazz, entryClazz, values);
+    }
+
     /**
      * Get the entryClass to access a field
      *
@@ -175,11 +240,15 @@ public class FilterConfig<R extends SearchableEntity, T> implements IFilterConfi
      * @return TargetClass
      */
     private Class<?> getTargetClass(Class<R> rootClazz) {
-        return SearchUtils.getEntityClass(rootClazz, getFirstPath().split(REGEX_DOT));
+        return SearchUtils.getEntityClass(rootClazz, getFirstPath());
     }
 
     @Override
     public boolean needJoin() {
+        if (exists) {
+            // Collections are only joined in EXISTS subqueries
+            return false;
+        }
         // check if contains ] or 1 point (need to check in further releases that a single point targets a foreign)
         return paths.stream().anyMatch(path -> path.lastIndexOf(']') >= 2 || path.contains("."));
     }
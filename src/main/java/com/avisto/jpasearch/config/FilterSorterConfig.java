@@ -24,8 +24,11 @@ import jakarta.persistence.criteria.Root;
  */
 public class FilterSorterConfig<R extends SearchableEntity, T> extends FilterConfig<R, T> implements ISorterConfig<R> {
 
+    private final String[] sortPathSegments;
+
     private FilterSorterConfig(IFilterOperation<T> filterOperation, String key, List<String> paths) {
         super(key, filterOperation, paths);
+        this.sortPathSegments = SearchUtils.splitPath(getSortPath());
     }
 
     public static <R extends SearchableEntity, T> FilterSorterConfig<R, T> of(String key, IFilterOperation<T> filterOperation, String pathFirst, String... paths) {
@@ -66,7 +69,7 @@ public class FilterSorterConfig<R extends SearchableEntity, T> extends FilterCon
 
     @Override
     public Order getOrder(Root<R> root, CriteriaBuilder criteriaBuilder, SortDirection sortDirection) {
-        return sortDirection.getOrder(criteriaBuilder, SearchUtils.getPath(root, getSortPath()));
+        return sortDirection.getOrder(criteriaBuilder, SearchUtils.getPath(root, sortPathSegments));
     }
 
     @Override
@@ -3,13 +3,14 @@ package com.avisto.jpasearch.config;
 import com.avisto.jpasearch.SearchableEntity;
 import com.avisto.jpasearch.exception.TypeNotHandledException;
 import com.avisto.jpasearch.model.ConditionOperator;
-import com.avisto.jpasearch.service.CastService;
 
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -62,19 +63,53 @@ public class GroupFilterConfig<R extends SearchableEntity> implements IFilterCon
      */
     @Override
     public Predicate getPredicate(Class<R> rootClazz, Root<R> root, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, Map<String, String> value) {
+        return getPredicate(rootClazz, root, null, cb, joins, value);
+    }
+
+    /**
+     * This method returns a predicate by applying a filter in the given query, passed to the grouped filters.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param root Root
+     * @param query Query in which the predicate is used
+     * @param cb Criteria Builder
+     * @param joins joins
+     * @param value Values use to filter by key, each of them already bound by its filter, as returned by bind
+     * @return Predicate
+     */
+    @Override
+    public Predicate getPredicate(Class<R> rootClazz, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, Map<String, String> value) {
         if (value == null) {
             throw new TypeNotHandledException("Cannot group null or empty filters");
         }
         return conditionOperator.applyCondition(cb, filters
                 .stream()
-                .map(filter -> {
-                    Class<?> filterClazz = filter.getEntryClass(rootClazz);
-                    return filter.getPredicate(rootClazz, root, cb, joins, CastService.cast(value.get(filter.getKey()), filterClazz));
-                })
+                .map(filter -> filter.getPredicate(rootClazz, root, query, cb, joins, ((Map<String, ?>) value).get(filter.getKey())))
                 .toArray(Predicate[]::new));
 
     }
 
+    /**
+     * Convert the raw value of a search into the value given to getPredicate : the value of each grouped filter is bound once by this filter.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param entryClazz Entry class of the filter, as returned by getEntryClass
+     * @param values Raw values of the filter
+     * @return Values use to filter by key
+     */
+    @Override
+    public Map<String, String> bind(Class<R> rootClazz, Class<Map<String, String>> entryClazz, String[] values) {
+        Map<String, String> rawValues = IFilterConfig.super.bind(rootClazz, entryClazz, values);
+        if (rawValues == null) {
+            return null;
+        }
+        Map<String, Object> boundValues = new HashMap<>();
+        for (IFilterConfig<R, ?> filter : filters) {
+            boundValues.put(filter.getKey(), filter.bind(rootClazz, rawValues.get(filter.getKey())));
+        }
+        return (Map<String, String>) (Map<String, ?>) boundValues;
+    }
+
     /**
      * Get the entryClass to access a field
      *
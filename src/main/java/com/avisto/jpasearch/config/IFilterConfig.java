@@ -1,13 +1,16 @@
 package com.avisto.jpasearch.config;
 
 import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.service.CastService;
 
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.util.List;
 import java.util.Map;
 
 import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
@@ -25,8 +28,57 @@ import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
 public non-sealed interface IFilterConfig<R extends SearchableEntity, T> extends ISearchConfig<R> {
     Predicate getPredicate(Class<R> rootClazz, Root<R> root, CriteriaBuilder cb, Map<String, Join<R,?>> joins, T value);
 
+    /**
+     * Return the predicate of the filter in the given query. Filters rendered as subqueries need the query,
+     * the other ones do not and ignore it. A filter nesting other filters must override this method and pass them the query :
+     * the filters created with ofExists refuse to be rendered without it.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param root Root
+     * @param query Query in which the predicate is used
+     * @param cb Criteria Builder
+     * @param joins joins
+     * @param value Value use to filter
+     * @return Predicate
+     */
+    default Predicate getPredicate(Class<R> rootClazz, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R,?>> joins, T value) {
+        return getPredicate(rootClazz, root, cb, joins, value);
+    }
+
     Class<T> getEntryClass(Class<R> rootClazz);
 
+    /**
+     * Convert the raw values of a search into the value given to getPredicate. It is called once per search,
+     * and its result is reused by every query of the search.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param entryClazz Entry class of the filter, as returned by getEntryClass
+     * @param values Raw values of the filter
+     * @return Value use to filter
+     */
+    default T bind(Class<R> rootClazz, Class<T> entryClazz, String[] values) {
+        if (needMultipleValues()) {
+            return (T) List.of(values);
+        }
+        return CastService.cast(values == null || values.length == 0 ? null : values[0], entryClazz);
+    }
+
+    /**
+     * Convert one raw value into the value given to getPredicate, when the filter is nested in another one.
+     * The raw value of a multiple values filter is a JSON list.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param value Raw value of the filter
+     * @return Value use to filter, null if the raw value is null or empty
+     */
+    default T bind(Class<R> rootClazz, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        String[] values = needMultipleValues() ? (String[]) CastService.cast(value, List.class).toArray(String[]::new) : new String[]{value};
+        return bind(rootClazz, getEntryClass(rootClazz), values);
+    }
+
     boolean needMultipleValues();
 
     boolean needJoin();
@@ -40,4 +92,24 @@ public non-sealed interface IFilterConfig<R extends SearchableEntity, T> extends
         String joinToKey = toPath.substring(firstIndex + 1);
         return getJoin(from.join(joinFromKey, JoinType.LEFT), joinToKey);
     }
+
+    /**
+     * Get the join of a path, reusing the joins already made by the query. Every prefix of the path is registered
+     * in the joins, so that paths sharing a prefix (account, account.accountType) share the join of this prefix.
+     *
+     * @param from Root of the joins
+     * @param joins Joins of the query, by path
+     * @param toPath Path to join
+     * @return Join
+     */
+    default Join<R, ?> getJoin(From<R, ?> from, Map<String, Join<R, ?>> joins, String toPath) {
+        Join<R, ?> join = joins.get(toPath);
+        if (join == null) {
+            int lastIndex = toPath.lastIndexOf(DOT);
+            From<R, ?> parent = lastIndex == -1 ? from : getJoin(from, joins, toPath.substring(0, lastIndex));
+            join = (Join<R, ?>) (Join<?, ?>) parent.join(toPath.substring(lastIndex + 1), JoinType.LEFT);
+            joins.put(toPath, join);
+        }
+        return join;
+    }
 }
@@ -1,16 +1,22 @@
 package com.avisto.jpasearch.config;
 
+import com.avisto.jpasearch.exception.FilterOperationException;
 import com.avisto.jpasearch.SearchableEntity;
 import com.avisto.jpasearch.model.ConditionOperator;
-import com.avisto.jpasearch.service.CastService;
 
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
+
 /**
  * MultiFilterConfig lets you apply a filter several times. For example, you can search for an Employee who has two pets, a dog and a cat.
  *
@@ -25,28 +31,50 @@ public class MultiFilterConfig<R extends SearchableEntity, X> implements IFilter
     private final IFilterConfig<R, X> filter;
     private final String joinPath;
     private final ConditionOperator condition;
+    private final boolean exists;
 
-    private MultiFilterConfig(String key, ConditionOperator conditionOperator, IFilterConfig filter, String joinPath) {
+    private MultiFilterConfig(String key, ConditionOperator conditionOperator, IFilterConfig filter, String joinPath, boolean exists) {
         this.key = key;
         this.filter = filter;
         this.joinPath = joinPath;
         this.condition= conditionOperator;
+        this.exists = exists;
     }
 
     public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> of(String key, IFilterConfig<R, X> filter, String joinPath) {
-        return new MultiFilterConfig<>(key, ConditionOperator.AND, filter, joinPath);
+        return new MultiFilterConfig<>(key, ConditionOperator.AND, filter, joinPath, false);
     }
 
     public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> of(String key, IFilterConfig<R, X> filter) {
-        return new MultiFilterConfig<>(key, ConditionOperator.AND, filter, null);
+        return new MultiFilterConfig<>(key, ConditionOperator.AND, filter, null, false);
     }
 
     public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> of(String key, ConditionOperator conditionOperator, IFilterConfig<R, X> filter, String joinPath) {
-        return new MultiFilterConfig<>(key, conditionOperator, filter, joinPath);
+        return new MultiFilterConfig<>(key, conditionOperator, filter, joinPath, false);
     }
 
     public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> of(String key, ConditionOperator conditionOperator, IFilterConfig<R, X> filter) {
-        return new MultiFilterConfig<>(key, conditionOperator, filter, null);
+        return new MultiFilterConfig<>(key, conditionOperator, filter, null, false);
+    }
+
+    /**
+     * Create a multi filter whose values are each tested in a correlated EXISTS subquery, holding its own join of the joinPath,
+     * instead of a join of the root query. The root rows are then never duplicated.
+     *
+     * @param key Key of the filter
+     * @param conditionOperator Condition between the values
+     * @param filter Filter applied to each value
+     * @param joinPath Path joined for each value
+     * @return MultiFilterConfig
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     * @param <X> Parent filter type.
+     */
+    public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> ofExists(String key, ConditionOperator conditionOperator, IFilterConfig<R, X> filter, String joinPath) {
+        return new MultiFilterConfig<>(key, conditionOperator, filter, joinPath, true);
+    }
+
+    public static <R extends SearchableEntity, X> MultiFilterConfig<R, X> ofExists(String key, IFilterConfig<R, X> filter, String joinPath) {
+        return new MultiFilterConfig<>(key, ConditionOperator.AND, filter, joinPath, true);
     }
 
     /**
@@ -58,21 +86,96 @@ public class MultiFilterConfig<R extends SearchableEntity, X> implements IFilter
      * @param joins joins
      * @param value Value use to filter
      * @return Predicate
+     * @throws FilterOperationException If the filter is created with {@link MultiFilterConfig#ofExists}, which can only be rendered
+     * as subqueries of a query
      */
     @Override
     public Predicate getPredicate(Class<R> rootClazz, Root<R> root, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, List<String> value) {
-        Class<X> filterClazz = filter.getEntryClass(rootClazz);
-        return this.condition.applyCondition(cb, value
+        return getPredicate(rootClazz, root, null, cb, joins, value);
+    }
+
+    /**
+     * This method returns a predicate by applying a filter in the given query.
+     * The values of a filter created with {@link MultiFilterConfig#ofExists} are each tested in an EXISTS subquery of this query :
+     * the joinPath is never joined to the root, as {@link MultiFilterConfig#needJoin()} tells the repository.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param root Root
+     * @param query Query in which the predicate is used
+     * @param cb Criteria Builder
+     * @param joins joins
+     * @param value Values use to filter, each of them already bound by the parent filter, as returned by bind
+     * @return Predicate
+     * @throws FilterOperationException If the filter is created with {@link MultiFilterConfig#ofExists} and there is no query
+     */
+    @Override
+    public Predicate getPredicate(Class<R> rootClazz, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R, ?>> joins, List<String> value) {
+        if (exists && query == null) {
+            throw new FilterOperationException(String.format("Filter %s tests its values in subqueries and needs the query it is used in", key));
+        }
+        // One row of the joinPath can match any of the values of an OR : all the values share a single join
+        Map<String, Join<R, ?>> orJoins = joinPath != null && condition == ConditionOperator.OR && !exists ? getValueJoins(root, joins) : null;
+        return this.condition.applyCondition(cb, ((List<?>) value)
                 .stream()
-                .map(v -> {
-                    if (joinPath != null) {
-                        joins.put(joinPath, getJoin(root, joinPath));
+                .map(boundValue -> {
+                    X v = (X) boundValue;
+                    if (exists) {
+                        Subquery<Integer> subquery = query.subquery(Integer.class);
+                        Root<R> correlatedRoot = subquery.correlate(root);
+                        Map<String, Join<R, ?>> subqueryJoins = new HashMap<>();
+                        if (joinPath != null) {
+                            getJoin(correlatedRoot, subqueryJoins, joinPath);
+                        }
+                        subquery.select(cb.nullLiteral(Integer.class)).where(filter.getPredicate(rootClazz, correlatedRoot, subquery, cb, subqueryJoins, v));
+                        return cb.exists(subquery);
                     }
-                    return filter.getPredicate(rootClazz, root, cb, joins, CastService.cast(v, filterClazz));
+                    if (joinPath == null) {
+                        return filter.getPredicate(rootClazz, root, query, cb, joins, v);
+                    }
+                    // Each value of an AND must match its own row of the joinPath, hence its own join
+                    Map<String, Join<R, ?>> valueJoins = orJoins != null ? orJoins : getValueJoins(root, joins);
+                    return filter.getPredicate(rootClazz, root, query, cb, valueJoins, v);
                 })
                 .toArray(Predicate[]::new));
     }
 
+    /**
+     * Convert the raw values of a search into the value given to getPredicate : each raw value is bound once by the parent filter.
+     *
+     * @param rootClazz Class to be analyzed
+     * @param entryClazz Entry class of the filter, as returned by getEntryClass
+     * @param values Raw values of the filter
+     * @return Values use to filter
+     */
+    @Override
+    public List<String> bind(Class<R> rootClazz, Class<List<String>> entryClazz, String[] values) {
+        List<Object> boundValues = new ArrayList<>(values.length);
+        for (String value : values) {
+            boundValues.add(filter.bind(rootClazz, value));
+        }
+        return (List<String>) (List<?>) boundValues;
+    }
+
+    /**
+     * Get the joins given to the filter for some values : the joins of the query, except for the joinPath,
+     * which is joined again so that these values do not constrain the rows joined by the other filters.
+     * The associations leading to the joinPath are joined once in the query and shared : only its last hop is joined per value.
+     *
+     * @param root Root
+     * @param joins Joins of the query
+     * @return Joins of the values
+     */
+    private Map<String, Join<R, ?>> getValueJoins(Root<R> root, Map<String, Join<R, ?>> joins) {
+        int lastIndex = joinPath.lastIndexOf(DOT);
+        if (lastIndex != -1) {
+            getJoin(root, joins, joinPath.substring(0, lastIndex));
+        }
+        Map<String, Join<R, ?>> valueJoins = new HashMap<>(joins);
+        valueJoins.keySet().removeIf(path -> path.equals(joinPath) || path.startsWith(joinPath + DOT));
+        getJoin(root, valueJoins, joinPath);
+        return valueJoins;
+    }
+
     /**
      * Get the entryClass to access a field
      *
@@ -86,7 +189,7 @@ public class MultiFilterConfig<R extends SearchableEntity, X> implements IFilter
 
     @Override
     public boolean needJoin() {
-        return filter.needJoin();
+        return !exists && filter.needJoin();
     }
 
     @Override
@@ -20,10 +20,12 @@ public class SorterConfig<R extends SearchableEntity> implements ISorterConfig<R
 
     private final String key;
     private final String path;
+    private final String[] pathSegments;
 
     private SorterConfig(String key, String path) {
         this.key = key;
         this.path = path;
+        this.pathSegments = SearchUtils.splitPath(path);
     }
 
     public static <R extends SearchableEntity> SorterConfig<R> of(String key, String path) {
@@ -63,7 +65,7 @@ public class SorterConfig<R extends SearchableEntity> implements ISorterConfig<R
 
     @Override
     public Order getOrder(Root<R> root, CriteriaBuilder criteriaBuilder, SortDirection sortDirection) {
-        return sortDirection.getOrder(criteriaBuilder, SearchUtils.getPath(root, path));
+        return sortDirection.getOrder(criteriaBuilder, SearchUtils.getPath(root, pathSegments));
     }
 
     @Override
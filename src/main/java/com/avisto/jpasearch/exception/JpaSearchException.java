@@ -10,4 +10,8 @@ public class JpaSearchException extends RuntimeException {
     public JpaSearchException(String message) {
         super(message);
     }
+
+    public JpaSearchException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,13 @@
+package com.avisto.jpasearch.exception;
+
+/**
+ * This exception is called when a keyset cursor cannot be decoded or does not match the requested sorts.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public class WrongCursorException extends JpaSearchException {
+    public WrongCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,88 @@
+package com.avisto.jpasearch.model;
+
+import java.util.Objects;
+
+/**
+ * Strategy used to compute the total number of elements of a {@link Page}.
+ * <ul>
+ *     <li>exact : count every matching element.</li>
+ *     <li>capped : count at most a given number of elements. Past it, the total is reported as a lower bound.</li>
+ *     <li>skipped : do not count. The total is a lower bound deduced from the page itself.</li>
+ * </ul>
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public final class CountStrategy {
+
+    private static final CountStrategy EXACT = new CountStrategy(Type.EXACT, Long.MAX_VALUE);
+    private static final CountStrategy SKIPPED = new CountStrategy(Type.SKIPPED, 0);
+
+    private final Type type;
+    private final long cap;
+
+    private CountStrategy(Type type, long cap) {
+        this.type = type;
+        this.cap = cap;
+    }
+
+    public static CountStrategy exact() {
+        return EXACT;
+    }
+
+    /**
+     * Count at most {@code cap} elements.
+     *
+     * @param cap Maximum number of elements to count
+     * @return CountStrategy
+     */
+    public static CountStrategy capped(long cap) {
+        if (cap < 0) {
+            throw new IllegalArgumentException("Count cap cannot be negative");
+        }
+        return new CountStrategy(Type.CAPPED, cap);
+    }
+
+    public static CountStrategy skipped() {
+        return SKIPPED;
+    }
+
+    public boolean isExact() {
+        return type == Type.EXACT;
+    }
+
+    public boolean isCapped() {
+        return type == Type.CAPPED;
+    }
+
+    public boolean isSkipped() {
+        return type == Type.SKIPPED;
+    }
+
+    public long getCap() {
+        return cap;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CountStrategy that = (CountStrategy) o;
+        return type == that.type && cap == that.cap;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, cap);
+    }
+
+    private enum Type {
+        EXACT,
+        CAPPED,
+        SKIPPED
+    }
+}
@@ -0,0 +1,80 @@
+package com.avisto.jpasearch.model;
+
+/**
+ * Strategy used to fetch the elements of a page.
+ * <ul>
+ *     <li>single query : select the entities of the page directly (default).</li>
+ *     <li>deferred join : first page over the ids and sorted fields only, then load the entities of these ids.
+ *     Deep offsets then skip narrow index rows instead of whole entity rows.</li>
+ *     <li>auto : use the deferred join from a given offset, for pages small enough to be loaded by their ids.</li>
+ * </ul>
+ * Searches with an entity graph and a filter needing a join always use the deferred join, so that the fetched
+ * associations do not break the pagination.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public final class FetchStrategy {
+
+    /**
+     * Largest page that the auto strategy loads by its ids.
+     */
+    public static final int MAX_DEFERRED_PAGE_SIZE = 500;
+
+    private static final FetchStrategy SINGLE_QUERY = new FetchStrategy(Type.SINGLE_QUERY, Long.MAX_VALUE);
+    private static final FetchStrategy DEFERRED_JOIN = new FetchStrategy(Type.DEFERRED_JOIN, 0);
+
+    private final Type type;
+    private final long offsetThreshold;
+
+    private FetchStrategy(Type type, long offsetThreshold) {
+        this.type = type;
+        this.offsetThreshold = offsetThreshold;
+    }
+
+    public static FetchStrategy singleQuery() {
+        return SINGLE_QUERY;
+    }
+
+    public static FetchStrategy deferredJoin() {
+        return DEFERRED_JOIN;
+    }
+
+    /**
+     * Use the deferred join for the pages starting at {@code offsetThreshold} or after.
+     *
+     * @param offsetThreshold Index of the first element from which the deferred join is used
+     * @return FetchStrategy
+     */
+    public static FetchStrategy auto(long offsetThreshold) {
+        if (offsetThreshold < 0) {
+            throw new IllegalArgumentException("Offset threshold cannot be negative");
+        }
+        return new FetchStrategy(Type.AUTO, offsetThreshold);
+    }
+
+    /**
+     * Return if the page starting at the given offset is fetched with the deferred join.
+     *
+     * @param offset Index of the first element of the page
+     * @param size Page size
+     * @return boolean
+     */
+    public boolean useDeferredJoin(long offset, int size) {
+        return switch (type) {
+            case SINGLE_QUERY -> false;
+            case DEFERRED_JOIN -> true;
+            case AUTO -> offset >= offsetThreshold && size <= MAX_DEFERRED_PAGE_SIZE;
+        };
+    }
+
+    public long getOffsetThreshold() {
+        return offsetThreshold;
+    }
+
+    private enum Type {
+        SINGLE_QUERY,
+        DEFERRED_JOIN,
+        AUTO
+    }
+}
@@ -1,5 +1,10 @@
 package com.avisto.jpasearch.model;
 
+import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.service.SearchUtils;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+
 /**
  * Path to the database field where you want to apply the operation.
  *
@@ -10,11 +15,15 @@ public class FieldPathObject {
     private final String left;
     private final String right;
     private final boolean needsJoin;
+    private final String[] leftSegments;
+    private final String[] rightSegments;
 
     private FieldPathObject(String left, String right, boolean needsJoin) {
         this.left = left;
         this.right = right;
         this.needsJoin = needsJoin;
+        this.leftSegments = SearchUtils.splitPath(left);
+        this.rightSegments = SearchUtils.splitPath(right);
     }
 
     public static FieldPathObject of(String path) {
@@ -38,4 +47,44 @@ public class FieldPathObject {
     public boolean needsJoin() {
         return needsJoin;
     }
+
+    /**
+     * Get the segments of the left part of the path, split on its dots once and for all.
+     *
+     * @return The segments, empty if the left part is blank
+     */
+    public String[] getLeftSegments() {
+        return leftSegments.clone();
+    }
+
+    /**
+     * Get the segments of the right part of the path, split on its dots once and for all.
+     *
+     * @return The segments, empty if the right part is blank
+     */
+    public String[] getRightSegments() {
+        return rightSegments.clone();
+    }
+
+    /**
+     * Get the path of the left part from a root or a join, without splitting it again.
+     *
+     * @param from Root or From
+     * @return The path of the left part
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     */
+    public <R extends SearchableEntity> Path<String> getLeftPath(From<R, ?> from) {
+        return SearchUtils.getPath(from, leftSegments);
+    }
+
+    /**
+     * Get the path of the right part from the join of the left part, without splitting it again.
+     *
+     * @param from The join of the left part
+     * @return The path of the right part, the join itself if the right part is blank
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     */
+    public <R extends SearchableEntity> Path<String> getRightPath(From<R, ?> from) {
+        return SearchUtils.getPath(from, rightSegments);
+    }
 }
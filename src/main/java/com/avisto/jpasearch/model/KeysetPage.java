@@ -0,0 +1,63 @@
+package com.avisto.jpasearch.model;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * KeysetPage class for keyset (seek) pagination. Instead of a page number, it holds opaque cursors pointing
+ * to the next and to the previous page.
+ *
+ * @param elements List of elements to be stored
+ * @param pageSize Page Size
+ * @param nextCursor Cursor of the next page, null if there is no next page
+ * @param previousCursor Cursor of the previous page, null if there is no previous page
+ * @param <T> Element type
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public record KeysetPage<T>(List<T> elements, int pageSize, String nextCursor, String previousCursor) {
+
+    /**
+     * Return an empty keyset page.
+     *
+     * @return KeysetPage
+     * @param <T> Element type
+     */
+    public static <T> KeysetPage<T> empty() {
+        return new KeysetPage<>(List.of(), 0, null, null);
+    }
+
+    /**
+     * Return a stream of elements contained in the page
+     * @return Stream of elements
+     */
+    public Stream<T> stream() {
+        return elements.stream();
+    }
+
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    /**
+     * Map the elements of the page, keeping its cursors.
+     *
+     * @param mapper Entity mapper
+     * @return A KeysetPage object containing the mapped elements.
+     * @param <D> The type of the object that will be returned in the KeysetPage object.
+     */
+    public <D> KeysetPage<D> map(Function<T, D> mapper) {
+        return new KeysetPage<>(elements.stream().map(mapper).collect(Collectors.toList()), pageSize, nextCursor, previousCursor);
+    }
+}
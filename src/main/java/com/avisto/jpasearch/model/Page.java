@@ -12,12 +12,25 @@ import java.util.stream.Stream;
  * @param pageNumber Page Number
  * @param pageSize Page Size
  * @param totalElements Number of elements
+ * @param totalExact True if totalElements is the exact number of elements, false if it is a lower bound
  * @param <T> Element type
  *
  * @author Gabriel Revelli
  * @version 1.0
  */
-public record Page<T>(List<T> elements, int pageNumber, int pageSize, long totalElements) {
+public record Page<T>(List<T> elements, int pageNumber, int pageSize, long totalElements, boolean totalExact) {
+
+    /**
+     * Create a page whose total number of elements is exact.
+     *
+     * @param elements List of elements to be stored
+     * @param pageNumber Page Number
+     * @param pageSize Page Size
+     * @param totalElements Number of elements
+     */
+    public Page(List<T> elements, int pageNumber, int pageSize, long totalElements) {
+        this(elements, pageNumber, pageSize, totalElements, true);
+    }
 
     /**
      * Return an empty page.
@@ -49,7 +62,7 @@ public record Page<T>(List<T> elements, int pageNumber, int pageSize, long total
      * @param <D> The type of the object that will be returned in the Page object.
      */
     public <D> Page<D> map(Function<T, D> mapper) {
-        return new Page<>(elements.stream().map(mapper).collect(Collectors.toList()), pageNumber, pageSize, totalElements);
+        return new Page<>(elements.stream().map(mapper).collect(Collectors.toList()), pageNumber, pageSize, totalElements, totalExact);
     }
 
 }
@@ -0,0 +1,54 @@
+package com.avisto.jpasearch.model;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Slice class for pagination without total count, for example for infinite scroll.
+ *
+ * @param elements List of elements to be stored
+ * @param pageNumber Page Number
+ * @param pageSize Page Size
+ * @param hasNext True if there are elements after this slice
+ * @param <T> Element type
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public record Slice<T>(List<T> elements, int pageNumber, int pageSize, boolean hasNext) {
+
+    /**
+     * Return an empty slice.
+     *
+     * @return Slice
+     * @param <T> Element type
+     */
+    public static <T> Slice<T> empty() {
+        return new Slice<>(List.of(), 0, 0, false);
+    }
+
+    /**
+     * Return a stream of elements contained in the slice
+     * @return Stream of elements
+     */
+    public Stream<T> stream() {
+        return elements.stream();
+    }
+
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    /**
+     * Map the elements of the slice, keeping its pagination information.
+     *
+     * @param mapper Entity mapper
+     * @return A Slice object containing the mapped elements.
+     * @param <D> The type of the object that will be returned in the Slice object.
+     */
+    public <D> Slice<D> map(Function<T, D> mapper) {
+        return new Slice<>(elements.stream().map(mapper).collect(Collectors.toList()), pageNumber, pageSize, hasNext);
+    }
+}
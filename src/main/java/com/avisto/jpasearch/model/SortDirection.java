@@ -22,6 +22,15 @@ public enum SortDirection {
     public Order getOrder(CriteriaBuilder cb, Expression<?> expression) {
         return orderFunction.apply(cb, expression);
     }
+
+    /**
+     * Get the opposite direction.
+     * @return DESC for ASC and ASC for DESC
+     */
+    public SortDirection reverse() {
+        return this == ASC ? DESC : ASC;
+    }
+
     public static SortDirection of(String sort) {
         if (sort == null) {
             return null;
@@ -5,6 +5,8 @@ import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import java.util.List;
 
+import com.avisto.jpasearch.service.SearchUtils;
+
 /**
  * This enum provide in_equal operation.
  *
@@ -23,7 +25,15 @@ public enum ListObjectFilterOperation implements IFilterOperation<List<Object>>
                 return ObjectFilterOperation.EQUAL.calculate(cb, expression, value.get(0));
             }
             CriteriaBuilder.In<Object> inClause = cb.in(expression);
-            value.forEach(inClause::value);
+            // A parameterized criteria builder binds literals as parameters, any other one would inline them : values are then bound by the provider
+            boolean literals = SearchUtils.bindsLiteralsAsParameters(cb);
+            SearchUtils.padToBucketSize(value).forEach(v -> {
+                if (literals && v != null) {
+                    inClause.value(cb.literal(v));
+                } else {
+                    inClause.value(v);
+                }
+            });
             return inClause;
         }
     };
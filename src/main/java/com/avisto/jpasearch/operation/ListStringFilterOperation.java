@@ -5,6 +5,8 @@ import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import java.util.List;
 
+import com.avisto.jpasearch.service.SearchUtils;
+
 /**
  * This enum provides IN_LIKE and IN_EQUAL_IGNORE_CASE_IGNORE_ACCENT operations.
  *
@@ -22,7 +24,7 @@ public enum ListStringFilterOperation implements IFilterOperation<List<String>>
             if (value.size() == 1) {
                 return StringFilterOperation.CONTAIN_IGNORE_CASE.calculate(cb ,expression, value.get(0));
             }
-            return cb.or(value.stream().map(v -> StringFilterOperation.CONTAIN_IGNORE_CASE.calculate(cb, expression, v)).toArray(Predicate[]::new));
+            return cb.or(SearchUtils.padToBucketSize(value).stream().map(v -> StringFilterOperation.CONTAIN_IGNORE_CASE.calculate(cb, expression, v)).toArray(Predicate[]::new));
         }
     },
     /**
@@ -34,7 +36,7 @@ public enum ListStringFilterOperation implements IFilterOperation<List<String>>
             if (value.size() == 1) {
                 StringFilterOperation.EQUAL_IGNORE_CASE_IGNORE_ACCENT.calculate(cb, expression, value.get(0));
             }
-            return cb.or(value.stream().map(v -> StringFilterOperation.EQUAL_IGNORE_CASE_IGNORE_ACCENT.calculate(cb, expression, v)).toArray(Predicate[]::new));
+            return cb.or(SearchUtils.padToBucketSize(value).stream().map(v -> StringFilterOperation.EQUAL_IGNORE_CASE_IGNORE_ACCENT.calculate(cb, expression, v)).toArray(Predicate[]::new));
         }
     };
 
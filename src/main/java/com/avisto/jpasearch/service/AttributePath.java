@@ -0,0 +1,57 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.exception.FieldPathNotFoundException;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.List;
+
+/**
+ * A criteria path resolved against the JPA metamodel : the attribute of each hop, and the java type it ends on.
+ *
+ * @param attributes The attribute of each hop, from the root class
+ * @param javaType The java type of the last hop, the element type for a collection
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+record AttributePath(List<Attribute<?, ?>> attributes, Class<?> javaType) {
+
+    /**
+     * Return if a hop of the path goes through a collection, which must be joined.
+     *
+     * @param hop The index of the hop
+     * @return boolean
+     */
+    boolean needJoin(int hop) {
+        return attributes.get(hop).isCollection();
+    }
+
+    /**
+     * Return if one of the hops of the path goes through a collection, which must be joined.
+     *
+     * @return boolean
+     */
+    boolean needJoin() {
+        return attributes.stream().anyMatch(Attribute::isCollection);
+    }
+
+    /**
+     * Walk the path from a root or a join, through its attribute handles.
+     *
+     * @param from The root or the join the path starts from
+     * @return The path
+     * @param <X> The type of the path
+     * @throws FieldPathNotFoundException If the path goes through a collection, which cannot be navigated without a join
+     */
+    <X> Path<X> get(Path<?> from) {
+        Path<?> path = from;
+        for (Attribute<?, ?> attribute : attributes) {
+            if (!(attribute instanceof SingularAttribute<?, ?> singularAttribute)) {
+                throw new FieldPathNotFoundException(String.format("Field path goes through the collection %s, which must be joined", attribute.getName()));
+            }
+            path = path.get((SingularAttribute) singularAttribute);
+        }
+        return (Path<X>) path;
+    }
+}
@@ -0,0 +1,17 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.config.IFilterConfig;
+
+/**
+ * A requested filter along with its value, already cast into the entry class of the filter.
+ *
+ * @param filterConfig The configuration of the filter
+ * @param value The value given to the predicate of the filter
+ * @param <R> The type of the entity that is searchable and used for search operations.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+record BoundFilter<R extends SearchableEntity>(IFilterConfig<R, Object> filterConfig, Object value) {
+}
@@ -8,42 +8,18 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.avisto.jpasearch.exception.TypeNotHandledException;
 import com.avisto.jpasearch.exception.ValueNotFoundInEnumException;
 import com.avisto.jpasearch.exception.WrongDateFormatException;
+import com.avisto.jpasearch.exception.WrongElementNumberException;
 
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.BIG_DECIMAL;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.BOOLEAN;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.DOUBLE;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.FLOAT;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.INSTANT;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.INTEGER;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.LIST;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.LOCAL_DATE;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.LOCAL_DATE_TIME;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.LONG;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.MAP;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.PRIMITIVE_BOOLEAN;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.PRIMITIVE_DOUBLE;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.PRIMITIVE_FLOAT;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.PRIMITIVE_INTEGER;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.PRIMITIVE_LONG;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.STRING;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.UUID;
-import static com.avisto.jpasearch.service.SearchConstants.ClassNames.ZONED_DATE_TIME;
-import static com.avisto.jpasearch.service.SearchConstants.Patterns.GENERIC_ISO_DATETIME_REGEX;
-import static com.avisto.jpasearch.service.SearchConstants.Strings.COMMA;
-import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
 import static com.avisto.jpasearch.service.SearchConstants.Strings.EMPTY_STRING;
-import static com.avisto.jpasearch.service.SearchConstants.Strings.SPACE;
 
 /**
  * Utility class for casting string values to different types based on the target class.
@@ -61,7 +37,75 @@ public class CastService {
         throw new IllegalStateException("Utility class");
     }
 
-    private static final Pattern TEMPORAL_REGEX = Pattern.compile(GENERIC_ISO_DATETIME_REGEX);
+    private static final int DATE_LENGTH = "yyyy-MM-dd".length();
+    private static final int DATE_TIME_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
+    private static final int OFFSET_LENGTH = "+HH:mm".length();
+
+    private static final Map<Class<?>, Converter<?>> CONVERTERS = Map.ofEntries(
+            Map.entry(String.class, (value, formatter) -> value),
+            Map.entry(java.util.UUID.class, (value, formatter) -> java.util.UUID.fromString(value)),
+            Map.entry(BigDecimal.class, (value, formatter) -> new BigDecimal(cleanNumber(value, false))),
+            Map.entry(float.class, (value, formatter) -> Float.valueOf(cleanNumber(value, false))),
+            Map.entry(Float.class, (value, formatter) -> Float.valueOf(cleanNumber(value, false))),
+            Map.entry(int.class, (value, formatter) -> Integer.valueOf(removeSpaces(value))),
+            Map.entry(Integer.class, (value, formatter) -> Integer.valueOf(removeSpaces(value))),
+            Map.entry(long.class, (value, formatter) -> Long.valueOf(value)),
+            Map.entry(Long.class, (value, formatter) -> Long.valueOf(value)),
+            Map.entry(double.class, (value, formatter) -> Double.parseDouble(cleanNumber(value, true))),
+            Map.entry(Double.class, (value, formatter) -> Double.parseDouble(cleanNumber(value, true))),
+            Map.entry(boolean.class, (value, formatter) -> Boolean.valueOf(value)),
+            Map.entry(Boolean.class, (value, formatter) -> Boolean.valueOf(value)),
+            Map.entry(LocalDate.class, (value, formatter) -> formatter == null ? convertTo(value, LocalDate.class) : LocalDate.parse(value, formatter)),
+            Map.entry(LocalDateTime.class, (value, formatter) -> formatter == null ? convertTo(value, LocalDateTime.class) : LocalDate.parse(value, formatter).atStartOfDay()),
+            Map.entry(ZonedDateTime.class, (value, formatter) -> formatter == null ? convertTo(value, ZonedDateTime.class) : LocalDate.parse(value, formatter).atStartOfDay().atZone(ZoneOffset.UTC)),
+            Map.entry(Instant.class, (value, formatter) -> convertTo(value, Instant.class)),
+            Map.entry(Map.class, (value, formatter) -> parseJsonToMap(value)),
+            Map.entry(List.class, (value, formatter) -> parseJsonToList(value))
+    );
+
+    private static final Map<Class<?>, ValueConverter<?>> REGISTERED_CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        ServiceLoader.load(ValueConverter.class).forEach(converter -> REGISTERED_CONVERTERS.put(converter.getType(), converter));
+    }
+
+    private static final ClassValue<Map<String, Enum<?>>> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+            }
+            return constants;
+        }
+    };
+
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Upper bound of the number of date patterns whose formatter is kept in cache.
+     */
+    private static final int MAX_CACHED_FORMATTERS = 256;
+
+    /**
+     * Register the converter of one of your own value types. A registered converter takes precedence over the built-in
+     * conversion of its type, if any.
+     *
+     * @param converter The converter
+     * @param <X> The converted type
+     */
+    public static <X> void register(ValueConverter<X> converter) {
+        REGISTERED_CONVERTERS.put(converter.getType(), converter);
+    }
+
+    /**
+     * Unregister the converter of a value type, previously registered or loaded as a service.
+     *
+     * @param clazz The converted class
+     */
+    public static void unregister(Class<?> clazz) {
+        REGISTERED_CONVERTERS.remove(clazz);
+    }
 
     /**
      * Casts the given string value to the specified class using the default date pattern.
@@ -94,34 +138,78 @@ public class CastService {
     public static <X> X cast(String value, Class<X> clazz, String datePattern) {
         DateTimeFormatter formatter = null;
         if (datePattern != null) {
-            formatter = DateTimeFormatter.ofPattern(datePattern);
+            formatter = getFormatter(datePattern);
         }
         if (value == null || value.equals(EMPTY_STRING)) {
             return null;
         }
+        ValueConverter<?> registeredConverter = REGISTERED_CONVERTERS.get(clazz);
+        if (registeredConverter != null) {
+            return (X) registeredConverter.convert(value);
+        }
         if (clazz.isEnum()) {
-            return Arrays.stream(clazz.getEnumConstants())
-                    .filter(e -> ((Enum<?>) e).name().equals(value))
-                    .findFirst()
-                    .orElseThrow(() -> new ValueNotFoundInEnumException(String.format("Value %s not found in enum %s", value, clazz.getSimpleName())));
-        }
-        return (X) switch (clazz.getSimpleName()) {
-            case STRING -> value;
-            case UUID -> java.util.UUID.fromString(value);
-            case BIG_DECIMAL -> new BigDecimal(value.replace(COMMA, DOT));
-            case PRIMITIVE_FLOAT, FLOAT -> Float.valueOf(value.replace(COMMA, DOT));
-            case PRIMITIVE_INTEGER, INTEGER -> Integer.valueOf(value.replaceAll(SPACE, EMPTY_STRING));
-            case PRIMITIVE_LONG, LONG -> Long.valueOf(value);
-            case PRIMITIVE_DOUBLE, DOUBLE -> Double.parseDouble(value.replace(COMMA, DOT).replaceAll(SPACE, EMPTY_STRING));
-            case PRIMITIVE_BOOLEAN, BOOLEAN -> Boolean.valueOf(value);
-            case LOCAL_DATE -> formatter == null ? convertTo(value, LocalDate.class) : LocalDate.parse(value, formatter);
-            case LOCAL_DATE_TIME -> formatter == null ? convertTo(value, LocalDateTime.class) : LocalDate.parse(value, formatter).atStartOfDay();
-            case ZONED_DATE_TIME -> formatter == null ? convertTo(value, ZonedDateTime.class) : LocalDate.parse(value, formatter).atStartOfDay().atZone(ZoneOffset.UTC);
-            case INSTANT -> convertTo(value, Instant.class);
-            case MAP -> parseJsonToMap(value);
-            case LIST -> parseJsonToList(value);
-            default -> throw new TypeNotHandledException(String.format("Cannot cast String to type %s : Type not handled", clazz.getSimpleName()));
-        };
+            Enum<?> constant = ENUM_CONSTANTS.get(clazz).get(value);
+            if (constant == null) {
+                throw new ValueNotFoundInEnumException(String.format("Value %s not found in enum %s", value, clazz.getSimpleName()));
+            }
+            return (X) constant;
+        }
+        Converter<?> converter = CONVERTERS.get(clazz);
+        if (converter == null) {
+            throw new TypeNotHandledException(String.format("Cannot cast String to type %s : Type not handled", clazz.getSimpleName()));
+        }
+        return (X) converter.convert(value, formatter);
+    }
+
+    private static DateTimeFormatter getFormatter(String datePattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(datePattern);
+        if (formatter == null) {
+            formatter = DateTimeFormatter.ofPattern(datePattern);
+            if (FORMATTERS.size() < MAX_CACHED_FORMATTERS) {
+                FORMATTERS.put(datePattern, formatter);
+            }
+        }
+        return formatter;
+    }
+
+    /**
+     * Replace the decimal commas of a number by dots, and remove its spaces if asked, in a single pass.
+     * The value itself is returned when there is nothing to clean.
+     */
+    private static String cleanNumber(String value, boolean removeSpaces) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && value.charAt(i) != ',' && !(removeSpaces && value.charAt(i) == ' ')) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(length).append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',') {
+                builder.append('.');
+            } else if (!removeSpaces || c != ' ') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String removeSpaces(String value) {
+        int i = value.indexOf(' ');
+        if (i < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length()).append(value, 0, i);
+        for (; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != ' ') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
     }
 
     /**
@@ -135,21 +223,55 @@ public class CastService {
      * @throws WrongDateFormatException If the provided date does not match the ISO DateTime format.
      * @throws TypeNotHandledException If the target class is not handled in the conversion logic.
      */
-    private static <X> Temporal convertTo(String value, Class<X> clazz) {
-        Matcher m = TEMPORAL_REGEX.matcher(value);
-        if (!m.matches()) {
-            throw new WrongDateFormatException(String.format("Date %s does not match ISO DateTime format", value));
+    private static <X> Temporal convertTo(CharSequence value, Class<X> clazz) {
+        // Single pass over the value, accepting exactly what GENERIC_ISO_DATETIME_REGEX matches :
+        // yyyy-MM-dd, optionally followed by THH:mm:ss, an optional .fraction, an optional Z or +HH:mm offset, and anything on the same line
+        int length = value.length();
+        if (length < DATE_LENGTH || !isDigits(value, 0, 4) || value.charAt(4) != '-' || !isDigits(value, 5, 2) || value.charAt(7) != '-' || !isDigits(value, 8, 2)) {
+            throw wrongDateFormat(value);
+        }
+        int fractionStart = -1;
+        int fractionEnd = -1;
+        int offsetStart = -1;
+        if (length > DATE_LENGTH) {
+            if (length < DATE_TIME_LENGTH || value.charAt(10) != 'T' || !isDigits(value, 11, 2) || value.charAt(13) != ':'
+                    || !isDigits(value, 14, 2) || value.charAt(16) != ':' || !isDigits(value, 17, 2)) {
+                throw wrongDateFormat(value);
+            }
+            int index = DATE_TIME_LENGTH;
+            if (index + 1 < length && value.charAt(index) == '.' && isDigit(value.charAt(index + 1))) {
+                fractionStart = ++index;
+                while (index < length && isDigit(value.charAt(index))) {
+                    index++;
+                }
+                fractionEnd = index;
+            }
+            if (index < length && (value.charAt(index) == 'Z'
+                    || (index + OFFSET_LENGTH <= length && (value.charAt(index) == '+' || value.charAt(index) == '-')
+                    && isDigits(value, index + 1, 2) && value.charAt(index + 3) == ':' && isDigits(value, index + 4, 2)))) {
+                offsetStart = index;
+            }
+            // The trailing characters are matched by ".*", which does not match line terminators
+            for (int i = offsetStart < 0 ? index : offsetStart; i < length; i++) {
+                if (isLineTerminator(value.charAt(i))) {
+                    throw wrongDateFormat(value);
+                }
+            }
         }
 
-        int year = m.group(1) == null ? 0 : Integer.parseInt(m.group(1));
-        int month = m.group(2) == null ? 0 : Integer.parseInt(m.group(2));
-        int day = m.group(3) == null ? 0 : Integer.parseInt(m.group(3));
-        int hours = m.group(4) == null ? 0 : Integer.parseInt(m.group(4));
-        int minutes = m.group(5) == null ? 0 : Integer.parseInt(m.group(5));
-        int seconds = m.group(6) == null ? 0 : Integer.parseInt(m.group(6));
-        int nanoSeconds = m.group(7) == null ? 0 : Integer.parseInt(m.group(7));
-        ZoneOffset offset = m.group(8) == null ? ZoneOffset.UTC : ZoneOffset.of(m.group(8));
-
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 2);
+        int day = parseDigits(value, 8, 2);
+        int hours = length > DATE_LENGTH ? parseDigits(value, 11, 2) : 0;
+        int minutes = length > DATE_LENGTH ? parseDigits(value, 14, 2) : 0;
+        int seconds = length > DATE_LENGTH ? parseDigits(value, 17, 2) : 0;
+        // As before, the digits of the fraction are read as a whole number of nanoseconds
+        int nanoSeconds = fractionStart < 0 ? 0 : parseFraction(value, fractionStart, fractionEnd);
+        ZoneOffset offset = ZoneOffset.UTC;
+        if (offsetStart >= 0 && value.charAt(offsetStart) != 'Z') {
+            int sign = value.charAt(offsetStart) == '-' ? -1 : 1;
+            offset = ZoneOffset.ofHoursMinutes(sign * parseDigits(value, offsetStart + 1, 2), sign * parseDigits(value, offsetStart + 4, 2));
+        }
 
         if (clazz == LocalDateTime.class) {
             return LocalDateTime.of(year, month, day, hours, minutes, seconds, nanoSeconds);
@@ -163,88 +285,75 @@ public class CastService {
         throw new TypeNotHandledException(String.format("Cannot cast String to type %s : Type not handled", clazz.getSimpleName()));
     }
 
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigits(CharSequence value, int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseDigits(CharSequence value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static int parseFraction(CharSequence value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end && result <= Integer.MAX_VALUE; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        if (result > Integer.MAX_VALUE) {
+            throw new NumberFormatException(String.format("For input string: \"%s\"", value.subSequence(start, end)));
+        }
+        return (int) result;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static WrongDateFormatException wrongDateFormat(CharSequence value) {
+        return new WrongDateFormatException(String.format("Date %s does not match ISO DateTime format", value));
+    }
+
     /**
+     * Parse a JSON object into its entries, such as {"key":"value","ids":[1,2]}.
+     * Nested objects and arrays are kept as they are written.
      *
-     * @param jsonString
-     * @return
+     * @param jsonString The JSON object
+     * @return The entries of the object
+     * @throws WrongElementNumberException If the object is too long or has too many entries
      */
     public static Map<String, String> parseJsonToMap(String jsonString) {
-        Map<String, String> resultMap = new HashMap<>();
-        jsonString = jsonString.trim();
-        jsonString = SearchUtils.trimBoth(jsonString, '{', '}');
-
-        // Split the JSON string into individual entries
-        String[] entryStrings = jsonString.split(",", -1);
-        List<String> valueAggregator = new ArrayList<>();
-        String lastEntry = null;
-
-        for (String entryString : entryStrings) {
-            if (lastEntry != null) {
-                valueAggregator.add(entryString);
-            } else {
-                // Split each entry into key and value
-                String[] entryParts = entryString.split(":", -1);
-                if (entryParts.length == 2) {
-                    String entryKey = SearchUtils.trimBoth(entryParts[0], '"', '"');
-                    String entryValue = entryParts[1];
-
-                    if (entryValue.startsWith("[")) {
-                        lastEntry = entryKey;
-                        valueAggregator.add(entryValue);
-                    } else {
-                        resultMap.put(entryKey, SearchUtils.trimBoth(entryValue, '"', '"'));
-                    }
-                }
-                else if (entryParts.length > 2) {
-                    List<String> partList = Arrays.asList(entryParts);
-                    lastEntry = SearchUtils.trimBoth(partList.remove(0), '"', '"');
-                    valueAggregator.add(String.join(":", partList));
-                    // TODO : error if [1] doesn't start with "{" or backed "\:"
-                }
-            }
-            if (lastEntry != null && (entryString.endsWith("}") || entryString.endsWith("]"))) {
-                resultMap.put(lastEntry, String.join(",", valueAggregator));
-                valueAggregator.clear();
-                lastEntry = null;
-            }
-        }
-        return resultMap;
+        return JsonTokenizer.parseMap(jsonString);
     }
 
     /**
+     * Parse a JSON array into its elements, such as ["a","b"] or a,b.
+     * Nested objects and arrays are kept as they are written.
      *
-     * @param jsonString
-     * @return
+     * @param jsonString The JSON array
+     * @return The elements of the array
+     * @throws WrongElementNumberException If the array is too long or has too many elements
      */
     public static List<String> parseJsonToList(String jsonString) {
-        List<String> resultList = new ArrayList<>();
-        jsonString = jsonString.trim();
-        jsonString = SearchUtils.trimBoth(jsonString, '[', ']');
-
-        // Split the JSON string into individual entries
-        String[] entryStrings = jsonString.split(",", -1);
-        List<String> valueAggregator = new ArrayList<>();
-        boolean insideObject = false;
-
-        for (String entryString : entryStrings) {
-            if (insideObject) {
-                valueAggregator.add(entryString);
-                if (entryString.endsWith("}")) {
-                    resultList.add(String.join(",", valueAggregator));
-                    valueAggregator.clear();
-                    insideObject = false;
-                }
-            } else {
-                if (entryString.startsWith("{")) {
-                    insideObject = true;
-                    valueAggregator.add(entryString);
-                } else {
-                    resultList.add(SearchUtils.trimBoth(entryString, '"', '"'));
-                }
-            }
-        }
-        return resultList;
+        return JsonTokenizer.parseList(jsonString);
     }
 
+    /**
+     * Built-in conversion of a string value, with the formatter of the date pattern if one is given.
+     */
+    @FunctionalInterface
+    private interface Converter<X> {
+        X convert(String value, DateTimeFormatter formatter);
+    }
 }
-
@@ -0,0 +1,110 @@
+package com.avisto.jpasearch.service;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reflection metadata of a class, read once and kept as long as the class is loaded.
+ * Fields are indexed by name over the whole hierarchy, so that resolving a path never walks the superclasses
+ * nor throws when a field is declared by a parent class.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private final Class<?> clazz;
+    private final Map<String, Field> fields;
+    private final Map<String, Class<?>> pathClasses = new ConcurrentHashMap<>();
+    private volatile String idPath;
+
+    private ClassMetadata(Class<?> clazz) {
+        this.clazz = clazz;
+        Map<String, Field> declaredFields = new HashMap<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                // A field hides the fields with the same name of its superclasses
+                declaredFields.putIfAbsent(field.getName(), field);
+            }
+        }
+        this.fields = Collections.unmodifiableMap(declaredFields);
+    }
+
+    /**
+     * Get the metadata of a class.
+     *
+     * @param clazz The class
+     * @return The metadata of the class
+     */
+    static ClassMetadata of(Class<?> clazz) {
+        return METADATA.get(clazz);
+    }
+
+    /**
+     * Get a field declared by the class or by one of its superclasses.
+     *
+     * @param name The name of the field
+     * @return The field, null if there is none
+     */
+    Field getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Get the class resolved by a field path, computing it on first use.
+     * Paths that cannot be resolved are not cached : the resolver is called again, and throws again.
+     *
+     * @param path The field path
+     * @param resolver Resolution of the path from the class
+     * @return The resolved class
+     */
+    Class<?> getPathClass(String path, Function<String, Class<?>> resolver) {
+        Class<?> pathClass = pathClasses.get(path);
+        if (pathClass == null) {
+            pathClass = resolver.apply(path);
+            pathClasses.put(path, pathClass);
+        }
+        return pathClass;
+    }
+
+    /**
+     * Get the name of the @Id or @EmbeddedId field of an entity, declared by the class or by one of its entity or mapped superclasses.
+     *
+     * @return The id field name, null if there is none
+     */
+    String getIdPath() {
+        String path = idPath;
+        if (path == null) {
+            path = findIdPath(clazz);
+            idPath = path;
+        }
+        return path;
+    }
+
+    private static String findIdPath(Class<?> clazz) {
+        if (clazz != null && (clazz.isAnnotationPresent(Entity.class) || clazz.isAnnotationPresent(MappedSuperclass.class))) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
+                    return field.getName();
+                }
+            }
+            return findIdPath(clazz.getSuperclass());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,147 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.OrderCriteria;
+import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.config.IFilterConfig;
+import com.avisto.jpasearch.config.ISearchConfig;
+import com.avisto.jpasearch.config.ISearchCriteriaConfig;
+import com.avisto.jpasearch.config.ISorterConfig;
+import com.avisto.jpasearch.exception.EmptyCriteriaException;
+import com.avisto.jpasearch.exception.FieldNotInCriteriaException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Filters and sorters of a criteria enum, indexed by key once and kept as long as the enum is loaded.
+ * As when the constants were scanned in order, the first filter and the first sorter declared with a key win :
+ * duplicated keys are only reported, through {@link CriteriaRegistry#hasDuplicateKeys()}.
+ *
+ * @param <R> The type of the entity that is searchable and used for search operations.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class CriteriaRegistry<R extends SearchableEntity> {
+
+    private static final ClassValue<CriteriaRegistry<?>> REGISTRIES = new ClassValue<>() {
+        @Override
+        protected CriteriaRegistry<?> computeValue(Class<?> type) {
+            return new CriteriaRegistry<>((ISearchCriteriaConfig<SearchableEntity>[]) type.getEnumConstants(), type);
+        }
+    };
+
+    private final Class<R> rootClazz;
+    private final OrderCriteria defaultOrderCriteria;
+    private final Map<String, IFilterConfig<R, ?>> filters;
+    private final Map<String, ISorterConfig<R>> sorters;
+    private final boolean duplicateKeys;
+
+    private CriteriaRegistry(ISearchCriteriaConfig<R>[] configurations, Class<?> configClazz) {
+        if (configurations.length == 0) {
+            throw new EmptyCriteriaException(String.format("%s is empty : Cannot declare an empty criteria", configClazz.getName()));
+        }
+        this.rootClazz = configurations[0].getRootClass();
+        this.defaultOrderCriteria = configurations[0].getDefaultOrderCriteria();
+        Map<String, IFilterConfig<R, ?>> filterMap = new HashMap<>();
+        Map<String, ISorterConfig<R>> sorterMap = new HashMap<>();
+        boolean duplicates = false;
+        for (ISearchCriteriaConfig<R> configuration : configurations) {
+            ISearchConfig<R> searchConfig = configuration.getSearchConfig();
+            if (searchConfig instanceof IFilterConfig<R, ?> filterConfig) {
+                duplicates |= filterMap.putIfAbsent(filterConfig.getKey(), filterConfig) != null;
+            }
+            if (searchConfig instanceof ISorterConfig<R> sorterConfig) {
+                duplicates |= sorterMap.putIfAbsent(sorterConfig.getKey(), sorterConfig) != null;
+            }
+        }
+        this.filters = Collections.unmodifiableMap(filterMap);
+        this.sorters = Collections.unmodifiableMap(sorterMap);
+        this.duplicateKeys = duplicates;
+    }
+
+    /**
+     * Get the registry of a criteria enum, indexing it on first use.
+     *
+     * @param configClazz Criteria Class
+     * @return The registry of the criteria
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     * @param <E> Criteria Enum
+     * @throws EmptyCriteriaException If the criteria has no constant
+     */
+    static <R extends SearchableEntity, E extends Enum<E> & ISearchCriteriaConfig<R>> CriteriaRegistry<R> of(Class<E> configClazz) {
+        return (CriteriaRegistry<R>) REGISTRIES.get(configClazz);
+    }
+
+    Class<R> getRootClazz() {
+        return rootClazz;
+    }
+
+    OrderCriteria getDefaultOrderCriteria() {
+        return defaultOrderCriteria;
+    }
+
+    /**
+     * Get a filter by its key.
+     *
+     * @param key The key of the filter
+     * @return The filter, null if the criteria has none with this key
+     */
+    IFilterConfig<R, ?> findFilter(String key) {
+        return filters.get(key);
+    }
+
+    /**
+     * Get a sorter by its key.
+     *
+     * @param key The key of the sorter
+     * @return The sorter, null if the criteria has none with this key
+     */
+    ISorterConfig<R> findSorter(String key) {
+        return sorters.get(key);
+    }
+
+    /**
+     * Get the filters of the given keys.
+     *
+     * @param keys The keys of the filters
+     * @return The filters, by key
+     * @throws FieldNotInCriteriaException If a key is not the one of a filter
+     */
+    Map<String, IFilterConfig<R, ?>> getFilters(Collection<String> keys) {
+        return getConfigs(filters, keys);
+    }
+
+    /**
+     * Get the sorters of the given keys.
+     *
+     * @param keys The keys of the sorters
+     * @return The sorters, by key
+     * @throws FieldNotInCriteriaException If a key is not the one of a sorter
+     */
+    Map<String, ISorterConfig<R>> getSorters(Collection<String> keys) {
+        return getConfigs(sorters, keys);
+    }
+
+    /**
+     * Check if two filters, or two sorters, are declared with the same key.
+     *
+     * @return True if a key is duplicated
+     */
+    boolean hasDuplicateKeys() {
+        return duplicateKeys;
+    }
+
+    private static <T> Map<String, T> getConfigs(Map<String, T> configs, Collection<String> keys) {
+        Map<String, T> result = new HashMap<>();
+        for (String key : keys) {
+            T config = configs.get(key);
+            if (config == null) {
+                throw new FieldNotInCriteriaException(String.format("Field %s is not specified in criteria", key));
+            }
+            result.put(key, config);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,207 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.exception.WrongElementNumberException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.avisto.jpasearch.service.SearchConstants.Limits.MAX_JSON_ELEMENTS;
+import static com.avisto.jpasearch.service.SearchConstants.Limits.MAX_JSON_LENGTH;
+
+/**
+ * Single pass tokenizer of the JSON-like values of the multiple values and grouped filters.
+ * Elements are delimited by the commas and colons found outside quotes and outside nested objects or arrays,
+ * and each element is only copied once, when it is returned.
+ * <ul>
+ *     <li>A quoted element is returned without its quotes, its escape sequences being resolved.</li>
+ *     <li>A nested object or array is returned as it is written, to be parsed again by the filter it is given to.</li>
+ *     <li>Any other element is returned as it is written, spaces included.</li>
+ * </ul>
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class JsonTokenizer {
+
+    private final CharSequence json;
+
+    private JsonTokenizer(CharSequence json) {
+        if (json.length() > MAX_JSON_LENGTH) {
+            throw new WrongElementNumberException(String.format("Value is too long : %d characters, at most %d are accepted", json.length(), MAX_JSON_LENGTH));
+        }
+        this.json = json;
+    }
+
+    /**
+     * Parse a list, such as ["a","b"], [1,2] or a,b.
+     *
+     * @param json The value to parse
+     * @return The elements of the list
+     */
+    static List<String> parseList(CharSequence json) {
+        JsonTokenizer tokenizer = new JsonTokenizer(json);
+        List<String> result = new ArrayList<>();
+        tokenizer.forEachElement('[', ']', (start, end) -> result.add(tokenizer.token(start, end)));
+        return result;
+    }
+
+    /**
+     * Parse an object, such as {"key":"value","ids":[1,2]}. Entries without a colon are ignored.
+     *
+     * @param json The value to parse
+     * @return The entries of the object
+     */
+    static Map<String, String> parseMap(CharSequence json) {
+        JsonTokenizer tokenizer = new JsonTokenizer(json);
+        Map<String, String> result = new HashMap<>();
+        tokenizer.forEachElement('{', '}', (start, end) -> {
+            int colon = tokenizer.indexOfSeparator(':', start, end);
+            if (colon >= 0) {
+                result.put(tokenizer.token(start, colon), tokenizer.token(colon + 1, end));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Call the consumer with the bounds of each element of the trimmed value, once its enclosing characters are removed.
+     */
+    private void forEachElement(char open, char close, ElementConsumer consumer) {
+        int start = 0;
+        int end = json.length();
+        while (start < end && json.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && json.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && json.charAt(start) == open && json.charAt(end - 1) == close) {
+            start++;
+            end--;
+        }
+        int count = 0;
+        int elementStart = start;
+        int separator;
+        while ((separator = indexOfSeparator(',', elementStart, end)) >= 0) {
+            checkCount(++count);
+            consumer.accept(elementStart, separator);
+            elementStart = separator + 1;
+        }
+        checkCount(++count);
+        consumer.accept(elementStart, end);
+    }
+
+    private static void checkCount(int count) {
+        if (count > MAX_JSON_ELEMENTS) {
+            throw new WrongElementNumberException(String.format("Too many elements : at most %d are accepted", MAX_JSON_ELEMENTS));
+        }
+    }
+
+    /**
+     * Get the index of the first separator between start and end which is neither quoted nor nested, -1 if there is none.
+     */
+    private int indexOfSeparator(char separator, int start, int end) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (quoted) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && depth > 0) {
+                depth--;
+            } else if (c == separator && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String token(int start, int end) {
+        int tokenStart = start;
+        int tokenEnd = end;
+        while (tokenStart < tokenEnd && json.charAt(tokenStart) <= ' ') {
+            tokenStart++;
+        }
+        while (tokenEnd > tokenStart && json.charAt(tokenEnd - 1) <= ' ') {
+            tokenEnd--;
+        }
+        if (tokenEnd - tokenStart >= 2 && json.charAt(tokenStart) == '"' && closingQuote(tokenStart) == tokenEnd - 1) {
+            return unescape(tokenStart + 1, tokenEnd - 1);
+        }
+        return json.subSequence(start, end).toString();
+    }
+
+    private int closingQuote(int openingQuote) {
+        for (int i = openingQuote + 1; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String unescape(int start, int end) {
+        int backslash = -1;
+        for (int i = start; i < end && backslash < 0; i++) {
+            if (json.charAt(i) == '\\') {
+                backslash = i;
+            }
+        }
+        if (backslash < 0) {
+            return json.subSequence(start, end).toString();
+        }
+        StringBuilder builder = new StringBuilder(end - start).append(json, start, backslash);
+        for (int i = backslash; i < end; i++) {
+            char c = json.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                builder.append(c);
+                continue;
+            }
+            char escaped = json.charAt(++i);
+            switch (escaped) {
+                case 'n' -> builder.append('\n');
+                case 't' -> builder.append('\t');
+                case 'r' -> builder.append('\r');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'u' -> {
+                    if (i + 4 < end && isHex(i + 1, 4)) {
+                        builder.append((char) Integer.parseInt(json, i + 1, i + 5, 16));
+                        i += 4;
+                    } else {
+                        builder.append('\\').append(escaped);
+                    }
+                }
+                case '"', '\\', '/' -> builder.append(escaped);
+                default -> builder.append('\\').append(escaped);
+            }
+        }
+        return builder.toString();
+    }
+
+    private boolean isHex(int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            if (Character.digit(json.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface ElementConsumer {
+        void accept(int start, int end);
+    }
+}
@@ -0,0 +1,133 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.exception.JpaSearchException;
+import com.avisto.jpasearch.exception.WrongCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset cursor : the sort values (and the id used as a tiebreaker) of the row a page starts after,
+ * and the direction in which the next page is read.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class KeysetCursor {
+
+    private static final char FORWARD = 'N';
+    private static final char BACKWARD = 'P';
+    private static final char NULL_VALUE = '~';
+    private static final char LENGTH_SEPARATOR = ':';
+
+    private final List<Object> values;
+    private final boolean backward;
+
+    private KeysetCursor(List<Object> values, boolean backward) {
+        this.values = values;
+        this.backward = backward;
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * Encode the values of a row into an opaque cursor.
+     *
+     * @param values Sort values followed by the id of the row
+     * @param backward True if the cursor reads the rows before the given one
+     * @return The cursor
+     */
+    static String encode(List<Object> values, boolean backward) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(backward ? BACKWARD : FORWARD);
+        for (Object value : values) {
+            if (value == null) {
+                builder.append(NULL_VALUE);
+            } else {
+                String stringValue = value instanceof Enum<?> e ? e.name() : value.toString();
+                builder.append(stringValue.length()).append(LENGTH_SEPARATOR).append(stringValue);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously built by {@link KeysetCursor#encode(List, boolean)}.
+     *
+     * @param cursor The cursor
+     * @param classes Classes of the expected values, in the same order as when the cursor was encoded
+     * @return The decoded cursor
+     * @throws WrongCursorException If the cursor is malformed or does not match the expected classes
+     */
+    static KeysetCursor decode(String cursor, List<Class<?>> classes) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.isEmpty() || (decoded.charAt(0) != FORWARD && decoded.charAt(0) != BACKWARD)) {
+                throw new WrongCursorException("Cursor direction is missing");
+            }
+            List<Object> values = new ArrayList<>(classes.size());
+            int index = 1;
+            for (Class<?> clazz : classes) {
+                if (index >= decoded.length()) {
+                    throw new WrongCursorException("Cursor does not match the requested sorts");
+                }
+                if (decoded.charAt(index) == NULL_VALUE) {
+                    values.add(null);
+                    index++;
+                    continue;
+                }
+                int separator = decoded.indexOf(LENGTH_SEPARATOR, index);
+                int end = separator + 1 + Integer.parseInt(decoded.substring(index, separator));
+                values.add(parse(decoded.substring(separator + 1, end), clazz));
+                index = end;
+            }
+            if (index != decoded.length()) {
+                throw new WrongCursorException("Cursor does not match the requested sorts");
+            }
+            return new KeysetCursor(values, decoded.charAt(0) == BACKWARD);
+        } catch (JpaSearchException e) {
+            throw new WrongCursorException(String.format("Cursor %s is not valid : %s", cursor, e.getMessage()));
+        } catch (RuntimeException e) {
+            throw new WrongCursorException(String.format("Cursor %s is not valid", cursor));
+        }
+    }
+
+    private static Object parse(String value, Class<?> clazz) {
+        if (clazz == String.class) {
+            return value;
+        }
+        // java.time types are written with toString(), which their parse method reads back without any loss
+        if (clazz == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (clazz == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (clazz == ZonedDateTime.class) {
+            return ZonedDateTime.parse(value);
+        }
+        if (clazz == OffsetDateTime.class) {
+            return OffsetDateTime.parse(value);
+        }
+        if (clazz == Instant.class) {
+            return Instant.parse(value);
+        }
+        if (clazz == LocalTime.class) {
+            return LocalTime.parse(value);
+        }
+        return CastService.cast(value, clazz);
+    }
+}
@@ -0,0 +1,111 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.exception.FieldPathNotFoundException;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.avisto.jpasearch.service.SearchConstants.Strings.REGEX_DOT;
+
+/**
+ * Resolution of the criteria paths through the JPA metamodel, which knows property access, embeddables
+ * and the attributes inherited from generic mapped superclasses. Resolved paths are kept per class and path.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class MetamodelPathResolver {
+
+    /**
+     * Resolver of each metamodel. Plans are cached by resolver : a metamodel must always get the same one.
+     * Neither the metamodel nor its resolver are kept once nothing else references them.
+     */
+    private static final Map<Metamodel, WeakReference<MetamodelPathResolver>> RESOLVERS = new WeakHashMap<>();
+
+    private final Metamodel metamodel;
+    private final Map<Class<?>, Map<String, AttributePath>> paths = new ConcurrentHashMap<>();
+
+    private MetamodelPathResolver(Metamodel metamodel) {
+        this.metamodel = metamodel;
+    }
+
+    /**
+     * Get the resolver of the managed types of a metamodel, creating it on first use.
+     *
+     * @param metamodel The metamodel of the persistence unit
+     * @return The resolver, the same one for as long as it is referenced
+     */
+    static MetamodelPathResolver of(Metamodel metamodel) {
+        synchronized (RESOLVERS) {
+            WeakReference<MetamodelPathResolver> reference = RESOLVERS.get(metamodel);
+            MetamodelPathResolver resolver = reference == null ? null : reference.get();
+            if (resolver == null) {
+                resolver = new MetamodelPathResolver(metamodel);
+                RESOLVERS.put(metamodel, new WeakReference<>(resolver));
+            }
+            return resolver;
+        }
+    }
+
+    /**
+     * Resolve a criteria path, such as "nestedList[nestedField]" or "embedded.field", from a managed class.
+     *
+     * @param clazz The managed class the path starts from
+     * @param path The criteria path
+     * @return The resolved path
+     * @throws FieldPathNotFoundException If a hop of the path is not an attribute of the metamodel
+     */
+    AttributePath resolve(Class<?> clazz, String path) {
+        Map<String, AttributePath> classPaths = paths.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>());
+        AttributePath attributePath = classPaths.get(path);
+        if (attributePath == null) {
+            attributePath = compute(clazz, path);
+            classPaths.put(path, attributePath);
+        }
+        return attributePath;
+    }
+
+    private AttributePath compute(Class<?> clazz, String path) {
+        List<Attribute<?, ?>> attributes = new ArrayList<>();
+        Type<?> type = getManagedType(clazz, path);
+        for (String segment : path.split(REGEX_DOT)) {
+            // "collection[field]" goes through the collection, then through the field of its elements
+            for (String name : segment.split("\\[|\\]")) {
+                if (!(type instanceof ManagedType<?> managedType)) {
+                    throw new FieldPathNotFoundException(String.format("Field path %s not found", path));
+                }
+                Attribute<?, ?> attribute = getAttribute(managedType, name, path);
+                attributes.add(attribute);
+                type = attribute instanceof PluralAttribute<?, ?, ?> pluralAttribute
+                        ? pluralAttribute.getElementType()
+                        : ((SingularAttribute<?, ?>) attribute).getType();
+            }
+        }
+        return new AttributePath(List.copyOf(attributes), type.getJavaType());
+    }
+
+    private ManagedType<?> getManagedType(Class<?> clazz, String path) {
+        try {
+            return metamodel.managedType(clazz);
+        } catch (IllegalArgumentException e) {
+            throw new FieldPathNotFoundException(String.format("Field path %s not found : %s is not a managed type", path, clazz.getName()));
+        }
+    }
+
+    private static Attribute<?, ?> getAttribute(ManagedType<?> managedType, String name, String path) {
+        try {
+            return managedType.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            throw new FieldPathNotFoundException(String.format("Field path %s not found", path));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.avisto.jpasearch.service;
+
+import jakarta.persistence.Parameter;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rendering of the filter values of one query as parameters instead of literals.
+ * The filter operations keep passing raw values to the criteria builder : the builder given by
+ * {@link ParameterBinder#getCriteriaBuilder()} replaces each of them by a {@link ParameterExpression},
+ * which is bound once the query is created. Queries of the same shape then render the same SQL.
+ * Values added to an IN clause are parameters if they are passed as {@link CriteriaBuilder#literal(Object)} :
+ * the clause itself is the one of the persistence provider. Since a plain builder inlines literals, they must only be used
+ * with the parameterized builder, recognized by {@link ParameterBinder#isParameterized(CriteriaBuilder)}.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class ParameterBinder {
+
+    /**
+     * Criteria builder methods comparing an expression to values, each of them having an overload taking expressions instead.
+     */
+    private static final Set<String> VALUE_METHODS = Set.of(
+            "equal", "notEqual", "like", "notLike",
+            "greaterThan", "greaterThanOrEqualTo", "lessThan", "lessThanOrEqualTo", "between",
+            "gt", "ge", "lt", "le"
+    );
+
+    private static final String LITERAL_METHOD = "literal";
+
+    /**
+     * Overload taking expressions of each value method, resolved once : the first argument is the compared expression,
+     * the next ones are values unless they already are expressions.
+     */
+    private static final Map<Method, Method> PARAMETERIZED_METHODS = getParameterizedMethods();
+
+    private final CriteriaBuilder cb;
+    private final CriteriaBuilder parameterizedCb;
+    private final List<Binding> bindings = new ArrayList<>();
+
+    private ParameterBinder(CriteriaBuilder cb, boolean parameterized) {
+        this.cb = cb;
+        this.parameterizedCb = parameterized
+                ? (CriteriaBuilder) Proxy.newProxyInstance(CriteriaBuilder.class.getClassLoader(), new Class<?>[]{CriteriaBuilder.class, Parameterized.class}, this::invokeCriteriaBuilder)
+                : cb;
+    }
+
+    /**
+     * Create the binder of one query.
+     *
+     * @param cb The criteria builder of the entity manager
+     * @param parameterized False to keep the values as they are passed to the criteria builder
+     * @return The binder
+     */
+    static ParameterBinder of(CriteriaBuilder cb, boolean parameterized) {
+        return new ParameterBinder(cb, parameterized);
+    }
+
+    /**
+     * Check if a criteria builder is the parameterized one of a binder, which binds the literals it is given as parameters.
+     *
+     * @param cb The criteria builder
+     * @return True if the builder binds literals as parameters
+     */
+    static boolean isParameterized(CriteriaBuilder cb) {
+        return cb instanceof Parameterized;
+    }
+
+    /**
+     * Get the criteria builder with which the predicates of the query must be built.
+     *
+     * @return The criteria builder
+     */
+    CriteriaBuilder getCriteriaBuilder() {
+        return parameterizedCb;
+    }
+
+    /**
+     * Bind the values met while building the predicates to the parameters of the created query.
+     *
+     * @param typedQuery The query created from the criteria query
+     * @return The same query
+     * @param <T> The result type of the query
+     */
+    <T> TypedQuery<T> bind(TypedQuery<T> typedQuery) {
+        bindings.forEach(binding -> typedQuery.setParameter((Parameter<Object>) binding.parameter(), binding.value()));
+        return typedQuery;
+    }
+
+    private Object invokeCriteriaBuilder(Object proxy, Method method, Object[] args) throws Throwable {
+        if (LITERAL_METHOD.equals(method.getName()) && args != null && args.length == 1 && args[0] != null) {
+            return toParameter(args[0]);
+        }
+        Method parameterizedMethod = PARAMETERIZED_METHODS.get(method);
+        if (parameterizedMethod != null && hasOnlyValues(method, args)) {
+            Object[] parameterizedArgs = args.clone();
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 1; i < args.length; i++) {
+                if (isValue(args[i], parameterTypes[i])) {
+                    parameterizedArgs[i] = toParameter(args[i]);
+                }
+            }
+            return invoke(cb, parameterizedMethod, parameterizedArgs);
+        }
+        return invoke(cb, method, args);
+    }
+
+    /**
+     * Check that the arguments of a value method can all be passed to its overload taking expressions :
+     * no value is null, and there is at least one value.
+     */
+    private static boolean hasOnlyValues(Method method, Object[] args) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        boolean hasValue = false;
+        for (int i = 1; i < args.length; i++) {
+            if (isValueType(parameterTypes[i])) {
+                if (args[i] == null) {
+                    return false;
+                }
+                hasValue |= !(args[i] instanceof Expression<?>);
+            }
+        }
+        return hasValue;
+    }
+
+    private static boolean isValue(Object arg, Class<?> parameterType) {
+        return arg != null && !(arg instanceof Expression<?>) && isValueType(parameterType);
+    }
+
+    private static boolean isValueType(Class<?> parameterType) {
+        return !parameterType.isPrimitive() && !Expression.class.isAssignableFrom(parameterType);
+    }
+
+    private static Map<Method, Method> getParameterizedMethods() {
+        Map<Method, Method> methods = new HashMap<>();
+        for (Method method : CriteriaBuilder.class.getMethods()) {
+            if (VALUE_METHODS.contains(method.getName())) {
+                Class<?>[] parameterTypes = method.getParameterTypes().clone();
+                boolean hasValue = false;
+                for (int i = 1; i < parameterTypes.length; i++) {
+                    if (isValueType(parameterTypes[i])) {
+                        parameterTypes[i] = Expression.class;
+                        hasValue = true;
+                    }
+                }
+                if (hasValue) {
+                    try {
+                        methods.put(method, CriteriaBuilder.class.getMethod(method.getName(), parameterTypes));
+                    } catch (NoSuchMethodException e) {
+                        // No overload taking expressions : the values of this method stay literals
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(methods);
+    }
+
+    private ParameterExpression<?> toParameter(Object value) {
+        Class<?> type = value instanceof Enum<?> enumValue ? enumValue.getDeclaringClass() : value.getClass();
+        ParameterExpression<?> parameter = cb.parameter(type);
+        bindings.add(new Binding(parameter, value));
+        return parameter;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Binding(ParameterExpression<?> parameter, Object value) {
+    }
+
+    /**
+     * Marker of the parameterized criteria builders.
+     */
+    private interface Parameterized {
+    }
+}
@@ -0,0 +1,47 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.SearchCriteria;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Canonical form of a search, used as a key of a {@link com.avisto.jpasearch.cache.SearchCache}.
+ * Filters are ordered by key, so that two criteria holding the same filters and sorts give equal keys.
+ *
+ * @param configClazz Criteria Class
+ * @param filters Filter values by filter key
+ * @param sorts Sorter keys followed by their direction
+ * @param pageNumber Page number
+ * @param size Page size
+ * @param options Everything else the result depends on : the kind of search, the mapper, the entity graph...
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+record SearchCacheKey(Class<?> configClazz, Map<String, List<String>> filters, List<String> sorts, int pageNumber, int size, List<Object> options) {
+
+    static SearchCacheKey of(Class<?> configClazz, SearchCriteria searchCriteria, Object... options) {
+        List<String> sorts = searchCriteria.getSorts()
+                .stream()
+                .map(sort -> sort.getKey() + " " + sort.getSortDirection())
+                .toList();
+        return new SearchCacheKey(configClazz, getFilters(searchCriteria), sorts, searchCriteria.getPageNumber(), searchCriteria.getSize(), Arrays.asList(options));
+    }
+
+    /**
+     * Build the key of a result that only depends on the filters of a search, such as its total count :
+     * the sorts, the page number and the size are left out.
+     */
+    static SearchCacheKey ofFilters(Class<?> configClazz, SearchCriteria searchCriteria, Object... options) {
+        return new SearchCacheKey(configClazz, getFilters(searchCriteria), List.of(), 0, 0, Arrays.asList(options));
+    }
+
+    private static Map<String, List<String>> getFilters(SearchCriteria searchCriteria) {
+        Map<String, List<String>> filters = new TreeMap<>();
+        searchCriteria.getFilters().forEach(filter -> filters.put(filter.getKey(), filter.getValues() == null ? List.of() : Arrays.asList(filter.getValues().clone())));
+        return Collections.unmodifiableMap(filters);
+    }
+}
@@ -51,6 +51,16 @@ public final class SearchConstants {
         public static final String MAP = "Map";
     }
 
+    public static final class Limits {
+        private Limits() {
+            throw new IllegalStateException("Utility class");
+        }
+
+        public static final int MAX_PADDED_LIST_SIZE = 512;
+        public static final int MAX_JSON_LENGTH = 1 << 20;
+        public static final int MAX_JSON_ELEMENTS = 10_000;
+    }
+
     public static final class Patterns {
         private Patterns() {
             throw new IllegalStateException("Utility class");
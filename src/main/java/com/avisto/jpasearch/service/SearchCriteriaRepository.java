@@ -3,40 +3,59 @@ package com.avisto.jpasearch.service;
 import com.avisto.jpasearch.FilterCriteria;
 import com.avisto.jpasearch.OrderCriteria;
 import com.avisto.jpasearch.SearchCriteria;
+import com.avisto.jpasearch.cache.SearchCache;
 import com.avisto.jpasearch.SearchableEntity;
 import com.avisto.jpasearch.config.IFilterConfig;
 import com.avisto.jpasearch.config.ISearchCriteriaConfig;
-import com.avisto.jpasearch.config.ISorterConfig;
-import com.avisto.jpasearch.exception.EmptyCriteriaException;
 import com.avisto.jpasearch.exception.FieldNotInCriteriaException;
+import com.avisto.jpasearch.exception.JpaSearchException;
 import com.avisto.jpasearch.exception.WrongDataTypeException;
 import com.avisto.jpasearch.exception.WrongElementNumberException;
+import com.avisto.jpasearch.model.CountStrategy;
+import com.avisto.jpasearch.model.FetchStrategy;
+import com.avisto.jpasearch.model.KeysetPage;
 import com.avisto.jpasearch.model.Page;
+import com.avisto.jpasearch.model.Slice;
 import com.avisto.jpasearch.model.SortDirection;
 import com.avisto.jpasearch.operation.ListObjectFilterOperation;
+import com.avisto.jpasearch.operation.ObjectFilterOperation;
 import static com.avisto.jpasearch.service.SearchConstants.KeyWords.PAGE;
 import static com.avisto.jpasearch.service.SearchConstants.KeyWords.SIZE;
 import static com.avisto.jpasearch.service.SearchConstants.KeyWords.SORTS;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.AbstractQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Metamodel;
+import java.lang.reflect.RecordComponent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * This class provides a generic search criteria repository to perform search operations on JPA entities. It supports filtering,
@@ -50,8 +69,33 @@ import java.util.function.Function;
 @Named
 public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum<E> & ISearchCriteriaConfig<R>> {
 
+    /**
+     * Default number of rows fetched per round-trip by {@link SearchCriteriaRepository#stream(Class, Map, List)}.
+     */
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+
     private final EntityManager entityManager;
 
+    private boolean singleRoundTrip = false;
+
+    private CountStrategy countStrategy = CountStrategy.exact();
+
+    private FetchStrategy fetchStrategy = FetchStrategy.singleQuery();
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private ExecutorService executorService;
+
+    private int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+
+    private boolean parameterized = false;
+
+    private SearchCache searchCache;
+
+    private SearchCache countCache;
+
+    private MetamodelPathResolver pathResolver;
+
     /**
      * Constructs a new SearchCriteriaRepository with the given entity manager, entity class, and enum class.
      *
@@ -62,6 +106,115 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         this.entityManager = entityManager;
     }
 
+    /**
+     * Fetch the page and the total count in one statement, the count being selected as an extra column of the page query.
+     * Searches whose filters need a join keep the count query and the page query, the count having to be distinct.
+     *
+     * @param singleRoundTrip True to fetch the page and its total count in one round-trip
+     */
+    public void setSingleRoundTrip(boolean singleRoundTrip) {
+        this.singleRoundTrip = singleRoundTrip;
+    }
+
+    /**
+     * Set how the total number of elements of a page is computed : exact (default), capped or skipped.
+     * When the total is not exact, {@link Page#totalExact()} is false and {@link Page#totalElements()} is a lower bound.
+     *
+     * @param countStrategy The count strategy
+     */
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    /**
+     * Set how the elements of a page are fetched : in a single query (default), or by a deferred join, paging over
+     * the ids first and then loading the entities of these ids. {@link FetchStrategy#auto(long)} uses the deferred join
+     * from a given offset only.
+     *
+     * @param fetchStrategy The fetch strategy
+     */
+    public void setFetchStrategy(FetchStrategy fetchStrategy) {
+        this.fetchStrategy = fetchStrategy;
+    }
+
+    /**
+     * Run the count query and the page query concurrently, each one on its own entity manager created from this factory.
+     * The returned elements are detached : the mapper, if any, is applied before their entity manager is closed.
+     *
+     * @param entityManagerFactory The factory of the entity managers, null to run the queries one after the other
+     */
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Set the executor running the concurrent queries. By default, virtual threads are used when available,
+     * and a bounded pool of threads otherwise.
+     *
+     * @param executorService The executor of the concurrent queries
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Bind every filter value as a query parameter instead of passing it to the criteria builder as a literal.
+     * Searches with the same filters and sorts then render the same SQL, whatever their values, and share the
+     * query plan cache of the persistence provider and the statement cache of the database.
+     *
+     * @param parameterized True to bind the filter values as parameters
+     */
+    public void setParameterized(boolean parameterized) {
+        this.parameterized = parameterized;
+    }
+
+    /**
+     * Cache the pages returned by search. A page is cached under the criteria enum, the filters, sorts, page and size of
+     * the search, its mapper instance and its entity graph. The mapper must be a stable instance, such as a constant or a field :
+     * a capturing lambda is a new instance on every call, so its pages are never served by the cache and only fill it until evicted.
+     *
+     * @param searchCache The cache of the pages, null to disable it
+     */
+    public void setSearchCache(SearchCache searchCache) {
+        this.searchCache = searchCache;
+    }
+
+    /**
+     * Cache the total counts of the pages. A count is cached under the criteria enum and the filters of the search only,
+     * so that paging through or re-sorting the same filtered list does not count it again. A short time to live is advised.
+     *
+     * @param countCache The cache of the counts, null to disable it
+     */
+    public void setCountCache(SearchCache countCache) {
+        this.countCache = countCache;
+    }
+
+    /**
+     * Resolve the sort, id and projection paths through the JPA metamodel instead of the fields of the entity classes,
+     * so that property access, embeddables and generic mapped superclasses are supported. The paths are resolved once,
+     * when the filters and sorters of a search are first planned, and queries walk the resolved attributes.
+     * Filter paths and filter entry classes are still resolved by name and by reflection.
+     * Repositories given the same metamodel share the same resolved paths and the same cached plans.
+     *
+     * @param metamodel The metamodel of the persistence unit, such as {@link EntityManager#getMetamodel()}, null to resolve the paths by reflection
+     */
+    public void setMetamodel(Metamodel metamodel) {
+        this.pathResolver = metamodel == null ? null : MetamodelPathResolver.of(metamodel);
+    }
+
+    /**
+     * Set the number of rows a stream fetches per round-trip. Streamed entities are detached once consumed,
+     * so that a stream runs in constant memory.
+     *
+     * @param streamFetchSize The fetch size of the streams
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        if (streamFetchSize <= 0) {
+            throw new IllegalArgumentException("Stream fetch size must be positive");
+        }
+        this.streamFetchSize = streamFetchSize;
+    }
+
     /**
      * Performs a search operation based on the provided search criteria and returns the results as a pageable list.
      *
@@ -178,26 +331,33 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
      */
     public <D> Page<D> search(Class<E> configClazz, SearchCriteria searchCriteria, Function<R, D> mapper, String entityGraphName) {
 
-        // Create CriteriaBuilder and CriteriaQuery
-        E[] configurations = configClazz.getEnumConstants();
-        if (configurations.length == 0) {
-            throw new EmptyCriteriaException(String.format("%s is empty : Cannot declare an empty criteria", configClazz.getName()));
+        // Get the compiled plan of this criteria for the requested filter and sorter keys
+        SearchPlan<R> plan = SearchPlan.<R, E>of(configClazz, searchCriteria, pathResolver).bind(searchCriteria);
+
+        if (searchCache != null) {
+            SearchCacheKey key = SearchCacheKey.of(configClazz, searchCriteria, "search", mapper, entityGraphName, countStrategy);
+            return searchCache.get(key, plan.getRootClazz(), () -> searchRequest(plan, searchCriteria, mapper, entityGraphName));
         }
-        Class<R> rootClazz = configurations[0].getRootClass();
-        Map<String, IFilterConfig<R, ?>> filterMap = SearchUtils.getSearchConfigMap(configurations, searchCriteria.getFilterKeys(), (Class<IFilterConfig<R, ?>>)(Class)IFilterConfig.class);
-        Map<String, ISorterConfig<R>> sorterMap = SearchUtils.getSearchConfigMap(configurations, searchCriteria.getSorterKeys(), (Class<ISorterConfig<R>>)(Class)ISorterConfig.class);
+        return searchRequest(plan, searchCriteria, mapper, entityGraphName);
+    }
 
+    private <D> Page<D> searchRequest(SearchPlan<R> plan, SearchCriteria searchCriteria, Function<R, D> mapper, String entityGraphName) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        String stringIdPath = SearchUtils.getIdStringPath(rootClazz);
+        int limit = getLimit(searchCriteria);
 
-        // Get the total count of results to create the Page object
-        Long count = getCount(cb, rootClazz, filterMap, searchCriteria, stringIdPath);
+        if (limit > 0 && entityManagerFactory != null && !countStrategy.isSkipped() && !(singleRoundTrip && countStrategy.isExact() && !plan.needJoin())) {
+            return concurrentRequest(plan, searchCriteria, mapper, entityGraphName, limit);
+        }
 
         Page<R> page;
-        if (entityGraphName != null && filterMap.values().stream().anyMatch(IFilterConfig::needJoin)) {
-            page = doubleRequest(cb, rootClazz, searchCriteria, filterMap, sorterMap, count, stringIdPath, entityGraphName);
+        if (limit > 0 && singleRoundTrip && countStrategy.isExact() && !plan.needJoin()) {
+            page = singleRoundTripRequest(cb, plan, searchCriteria, limit);
         } else {
-            page = simpleRequest(cb, rootClazz, searchCriteria, filterMap, sorterMap, count);
+            List<R> results = limit == 0
+                    ? Collections.emptyList()
+                    : getResults(cb, plan, searchCriteria, entityGraphName, searchCriteria.getPageNumber() * limit, limit);
+            // Get the total count of results to create the Page object
+            page = getPage(cb, plan, searchCriteria, results, limit);
         }
         if (mapper != null) {
             return page.map(mapper);
@@ -205,126 +365,419 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         return (Page<D>) page;
     }
 
+    /**
+     * Performs a search operation based on the provided search criteria and returns the results as a slice, without counting
+     * the total number of results. One more element than the page size is fetched to know if there is a next slice.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @return A Slice object containing the search results and whether a next slice exists.
+     */
+    public Slice<R> searchSlice(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts) {
+        return searchSlice(configClazz, format(configClazz, rawValues, sorts), null, null);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns the results as a slice, without counting
+     * the total number of results. One more element than the page size is fetched to know if there is a next slice.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param mapper The entity mapper
+     * @return A Slice object containing the search results and whether a next slice exists.
+     * @param <D> The type of the object that will be returned in the Slice object.
+     */
+    public <D> Slice<D> searchSlice(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, Function<R, D> mapper) {
+        return searchSlice(configClazz, format(configClazz, rawValues, sorts), mapper, null);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns the results as a slice, without counting
+     * the total number of results. One more element than the page size is fetched to know if there is a next slice.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param mapper The entity mapper
+     * @param entityGraphName Name of the entityGraph
+     * @return A Slice object containing the search results and whether a next slice exists.
+     * @param <D> The type of the object that will be returned in the Slice object.
+     */
+    public <D> Slice<D> searchSlice(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, Function<R, D> mapper, String entityGraphName) {
+        return searchSlice(configClazz, format(configClazz, rawValues, sorts), mapper, entityGraphName);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns the results as a slice, without counting
+     * the total number of results. One more element than the page size is fetched to know if there is a next slice.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The SearchCriteria object containing filtering, sorting, and pagination details.
+     * @param mapper The entity mapper
+     * @param entityGraphName Name of the entityGraph
+     * @return A Slice object containing the search results and whether a next slice exists.
+     * @param <D> The type of the object that will be returned in the Slice object.
+     */
+    public <D> Slice<D> searchSlice(Class<E> configClazz, SearchCriteria searchCriteria, Function<R, D> mapper, String entityGraphName) {
+        SearchPlan<R> plan = SearchPlan.<R, E>of(configClazz, searchCriteria, pathResolver).bind(searchCriteria);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        int limit = getLimit(searchCriteria);
+
+        Slice<R> slice;
+        if (limit == 0) {
+            slice = new Slice<>(Collections.emptyList(), searchCriteria.getPageNumber(), limit, false);
+        } else {
+            List<R> results = getResults(cb, plan, searchCriteria, entityGraphName, searchCriteria.getPageNumber() * limit, limit == Integer.MAX_VALUE ? limit : limit + 1);
+            boolean hasNext = results.size() > limit;
+            slice = new Slice<>(hasNext ? results.subList(0, limit) : results, searchCriteria.getPageNumber(), limit, hasNext);
+        }
+        if (mapper != null) {
+            return slice.map(mapper);
+        }
+        return (Slice<D>) slice;
+    }
+
+    /**
+     * Performs a keyset (seek) search based on the provided search criteria. Instead of skipping the rows of the previous pages,
+     * the page starts right after the row described by the cursor, so deep pages cost the same as the first one.
+     * The sorts are completed with the @Id of the entity to make the order unique.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param cursor Cursor returned by a previous keyset search, null for the first page
+     * @return A KeysetPage object containing the search results with the cursors of the next and previous pages.
+     */
+    public KeysetPage<R> searchKeyset(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, String cursor) {
+        return searchKeyset(configClazz, format(configClazz, rawValues, sorts), cursor, null);
+    }
+
+    /**
+     * Performs a keyset (seek) search based on the provided search criteria. Instead of skipping the rows of the previous pages,
+     * the page starts right after the row described by the cursor, so deep pages cost the same as the first one.
+     * The sorts are completed with the @Id of the entity to make the order unique.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param cursor Cursor returned by a previous keyset search, null for the first page
+     * @param mapper The entity mapper
+     * @return A KeysetPage object containing the search results with the cursors of the next and previous pages.
+     * @param <D> The type of the object that will be returned in the KeysetPage object.
+     */
+    public <D> KeysetPage<D> searchKeyset(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, String cursor, Function<R, D> mapper) {
+        return searchKeyset(configClazz, format(configClazz, rawValues, sorts), cursor, mapper);
+    }
+
+    /**
+     * Performs a keyset (seek) search based on the provided search criteria. The page number of the search criteria is ignored.
+     * Sorted fields should not be nullable : rows with a null sort value cannot be sought past.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The SearchCriteria object containing filtering, sorting, and page size details.
+     * @param cursor Cursor returned by a previous keyset search, null for the first page
+     * @param mapper The entity mapper
+     * @return A KeysetPage object containing the search results with the cursors of the next and previous pages.
+     * @param <D> The type of the object that will be returned in the KeysetPage object.
+     */
+    public <D> KeysetPage<D> searchKeyset(Class<E> configClazz, SearchCriteria searchCriteria, String cursor, Function<R, D> mapper) {
+        SearchPlan<R> plan = SearchPlan.<R, E>of(configClazz, searchCriteria, pathResolver).bind(searchCriteria);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        KeysetPage<R> page = keysetRequest(cb, plan, searchCriteria, cursor);
+        if (mapper != null) {
+            return page.map(mapper);
+        }
+        return (KeysetPage<D>) page;
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns all the results as a lazily consumed stream.
+     * The page and size parameters are ignored. Rows are fetched by batches of the stream fetch size, and each entity
+     * is detached once the next one is read : only the current element can navigate lazy associations.
+     * The stream must be closed once consumed.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @return A Stream of the search results
+     */
+    public Stream<R> stream(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts) {
+        return stream(configClazz, format(configClazz, rawValues, sorts), null);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns all the results as a lazily consumed stream.
+     * The page and size parameters are ignored. Rows are fetched by batches of the stream fetch size, and each entity
+     * is detached as soon as it is mapped. The stream must be closed once consumed.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param mapper The entity mapper
+     * @return A Stream of the mapped search results
+     * @param <D> The type of the object that will be returned in the Stream.
+     */
+    public <D> Stream<D> stream(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, Function<R, D> mapper) {
+        return stream(configClazz, format(configClazz, rawValues, sorts), mapper);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns all the results as a lazily consumed stream.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The SearchCriteria object containing filtering and sorting details.
+     * @param mapper The entity mapper
+     * @return A Stream of the search results
+     * @param <D> The type of the object that will be returned in the Stream.
+     */
+    public <D> Stream<D> stream(Class<E> configClazz, SearchCriteria searchCriteria, Function<R, D> mapper) {
+        SearchPlan<R> plan = SearchPlan.<R, E>of(configClazz, searchCriteria, pathResolver).bind(searchCriteria);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<R> criteriaQuery = cb.createQuery(plan.getRootClazz());
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
+        Map<String, Join<R, ?>> joins = new HashMap<>();
+        ParameterBinder binder = newParameterBinder(cb);
+        // Filters needing joins go through an id subquery, so the entities are not duplicated and need no distinct :
+        // a distinct select ordered by joined paths would be rejected by some databases
+        criteriaQuery.where(getRowPredicate(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins));
+        criteriaQuery.orderBy(searchCriteria.getSorts()
+                .stream()
+                .map(sort -> plan.getOrder(sort.getKey(), root, joins, cb, sort.getSortDirection()))
+                .toList());
+
+        TypedQuery<R> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setHint("org.hibernate.readOnly", true);
+        typedQuery.setHint("org.hibernate.fetchSize", streamFetchSize);
+
+        // Only the streamed entities are detached : the other entities of the persistence context, and their changes, are kept
+        Object[] previous = {null};
+        return typedQuery.getResultStream().map(entity -> {
+            if (previous[0] != null) {
+                entityManager.detach(previous[0]);
+                previous[0] = null;
+            }
+            if (mapper == null) {
+                // The caller gets the entity itself, which stays managed until the next one is read
+                previous[0] = entity;
+                return (D) entity;
+            }
+            // Map before detaching, so that the mapper can still navigate lazy associations
+            D element = mapper.apply(entity);
+            entityManager.detach(entity);
+            return element;
+        }).onClose(() -> {
+            if (previous[0] != null) {
+                entityManager.detach(previous[0]);
+            }
+        });
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns projections of the results as a pageable list.
+     * Only the projected attributes are selected and passed to the constructor of the projection, no entity is loaded.
+     * When no attribute path is given, the projection must be a record and its component names are used as paths.
+     *
+     * @param configClazz Criteria Class
+     * @param rawValues Search parameters
+     * @param sorts Sorter for your search
+     * @param projectionClazz Class of the projection, with a constructor taking the projected attributes in order
+     * @param attributePaths Paths of the projected attributes, from the root entity, their associations being LEFT joined
+     * @return A Page object containing the projected search results with pagination information.
+     * @param <D> The type of the projection
+     */
+    public <D> Page<D> searchProjection(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts, Class<D> projectionClazz, String... attributePaths) {
+        return searchProjection(configClazz, format(configClazz, rawValues, sorts), projectionClazz, attributePaths);
+    }
+
+    /**
+     * Performs a search operation based on the provided search criteria and returns projections of the results as a pageable list.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The SearchCriteria object containing filtering, sorting, and pagination details.
+     * @param projectionClazz Class of the projection, with a constructor taking the projected attributes in order
+     * @param attributePaths Paths of the projected attributes, from the root entity, their associations being LEFT joined
+     * @return A Page object containing the projected search results with pagination information.
+     * @param <D> The type of the projection
+     */
+    public <D> Page<D> searchProjection(Class<E> configClazz, SearchCriteria searchCriteria, Class<D> projectionClazz, String... attributePaths) {
+        SearchPlan<R> plan = SearchPlan.<R, E>of(configClazz, searchCriteria, pathResolver).bind(searchCriteria);
+        String[] paths = getProjectionPaths(plan, projectionClazz, attributePaths);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        int limit = getLimit(searchCriteria);
+
+        List<D> results = limit == 0
+                ? Collections.emptyList()
+                : projectionRequest(cb, plan, searchCriteria, projectionClazz, paths, searchCriteria.getPageNumber() * limit, limit);
+        Long count = countStrategy.isSkipped() ? null : getTotal(cb, plan, searchCriteria);
+        return toPage(results, count, searchCriteria.getPageNumber(), limit);
+    }
+
     /*
         PRIVATE
      */
 
-    private Page<R> simpleRequest(
-            CriteriaBuilder cb,
-            Class<R> rootClazz,
-            SearchCriteria searchCriteria,
-            Map<String, IFilterConfig<R, ?>> filterMap,
-            Map<String, ISorterConfig<R>> sorterMap,
-            long count
-    ) {
-        CriteriaQuery<R> criteriaQuery = cb.createQuery(rootClazz);
-        Root<R> root = criteriaQuery.from(rootClazz);
+    private List<R> getResults(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, String entityGraphName, int firstResult, int maxResults) {
+        // A fetch graph over joined rows would paginate in memory : always page over the ids first
+        if ((entityGraphName != null && plan.needJoin()) || fetchStrategy.useDeferredJoin(firstResult, maxResults)) {
+            return doubleRequest(cb, plan, searchCriteria, entityGraphName, firstResult, maxResults);
+        }
+        return simpleRequest(cb, plan, searchCriteria, firstResult, maxResults);
+    }
+
+    private List<R> simpleRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, int firstResult, int maxResults) {
+        CriteriaQuery<R> criteriaQuery = cb.createQuery(plan.getRootClazz());
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
         Map<String, Join<R, ?>> joins = new HashMap<>();
+        ParameterBinder binder = newParameterBinder(cb);
 
         // Get the predicate for filtering the search results
-        criteriaQuery.where(getPredicates(searchCriteria, rootClazz, filterMap, root, cb, joins));
+        criteriaQuery.where(getPredicates(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins));
 
-        int limit = searchCriteria.getSize();
+        // Set sorting in the CriteriaQuery
+        List<Order> orders = searchCriteria.getSorts()
+                .stream()
+                .map(sort -> plan.getOrder(sort.getKey(), root, joins, cb, sort.getSortDirection()))
+                .toList();
+        criteriaQuery.orderBy(orders);
 
-        // Check if the "limit" is set to zero (size is zero)
-        if (limit > 0) {
-            // Set sorting in the CriteriaQuery
-            List<Order> orders = searchCriteria.getSorts()
-                    .stream()
-                    .map(sort -> sorterMap.get(sort.getKey()).getOrder(root, cb, sort.getSortDirection()))
-                    .toList();
-            criteriaQuery.orderBy(orders);
-
-            // Execute the query with pagination settings
-            TypedQuery<R> typedQuery = entityManager.createQuery(criteriaQuery);
-            typedQuery.setHint("org.hibernate.readOnly", true);
-            typedQuery.setFirstResult(searchCriteria.getPageNumber() * limit);
-            typedQuery.setMaxResults(limit);
-
-            List<R> results = typedQuery.getResultList();
-
-            // Return the Page object with the search results and pagination information
-            return new Page<>(results, searchCriteria.getPageNumber(), limit, count);
-        } else if (limit == 0) {
-            // Return the Page object with the search results and pagination information
-            return new Page<>(Collections.emptyList(), searchCriteria.getPageNumber(), limit, count);
-        } else {
-            throw new WrongDataTypeException("Limit cannot be negative");
+        // Execute the query with pagination settings
+        TypedQuery<R> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setHint("org.hibernate.readOnly", true);
+        typedQuery.setFirstResult(firstResult);
+        typedQuery.setMaxResults(maxResults);
+
+        return typedQuery.getResultList();
+    }
+
+    private <D> List<D> projectionRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, Class<D> projectionClazz, String[] paths, int firstResult, int maxResults) {
+        CriteriaQuery<D> criteriaQuery = cb.createQuery(projectionClazz);
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
+        Map<String, Join<R, ?>> joins = new HashMap<>();
+        ParameterBinder binder = newParameterBinder(cb);
+
+        // Joined rows neither duplicate nor require distinct projections
+        criteriaQuery.where(getRowPredicate(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins));
+
+        criteriaQuery.select(cb.construct(projectionClazz, Arrays.stream(paths).map(path -> plan.getSelectedPath(root, joins, path)).toArray(Selection[]::new)));
+        criteriaQuery.orderBy(searchCriteria.getSorts()
+                .stream()
+                .map(sort -> plan.getOrder(sort.getKey(), root, joins, cb, sort.getSortDirection()))
+                .toList());
+
+        TypedQuery<D> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setFirstResult(firstResult);
+        typedQuery.setMaxResults(maxResults);
+        return typedQuery.getResultList();
+    }
+
+    private String[] getProjectionPaths(SearchPlan<R> plan, Class<?> projectionClazz, String[] attributePaths) {
+        String[] paths = attributePaths;
+        if (paths == null || paths.length == 0) {
+            if (!projectionClazz.isRecord()) {
+                throw new WrongElementNumberException(String.format("No attribute path given for projection %s, which is not a record", projectionClazz.getName()));
+            }
+            paths = Arrays.stream(projectionClazz.getRecordComponents()).map(RecordComponent::getName).toArray(String[]::new);
         }
+        // Resolve every path on the root entity, so that a wrong path fails before any query
+        Arrays.stream(paths).forEach(plan::getPathClass);
+        return paths;
+    }
 
+    private Page<R> singleRoundTripRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, int limit) {
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
+
+        // Select the total count as a scalar subquery next to each row of the page
+        ParameterBinder binder = newParameterBinder(cb);
+        Subquery<Long> countQuery = criteriaQuery.subquery(Long.class);
+        Root<R> countRoot = countQuery.from(plan.getRootClazz());
+        countQuery.select(cb.count(countRoot)).where(getPredicates(plan, countRoot, countQuery, binder.getCriteriaBuilder(), new HashMap<>()));
+
+        Map<String, Join<R, ?>> joins = new HashMap<>();
+        criteriaQuery.select(cb.tuple(root, countQuery));
+        criteriaQuery.where(getPredicates(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins));
+        criteriaQuery.orderBy(searchCriteria.getSorts()
+                .stream()
+                .map(sort -> plan.getOrder(sort.getKey(), root, joins, cb, sort.getSortDirection()))
+                .toList());
+
+        // Execute the query with pagination settings
+        TypedQuery<Tuple> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setHint("org.hibernate.readOnly", true);
+        typedQuery.setFirstResult(searchCriteria.getPageNumber() * limit);
+        typedQuery.setMaxResults(limit);
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        long count;
+        if (!tuples.isEmpty()) {
+            count = tuples.get(0).get(1, Long.class);
+        } else if (searchCriteria.getPageNumber() == 0) {
+            count = 0L;
+        } else {
+            // A page after the last one has no row to carry the count
+            count = getCount(cb, plan, searchCriteria);
+        }
+        List<R> results = tuples.stream().map(tuple -> (R) tuple.get(0)).toList();
+        return new Page<>(results, searchCriteria.getPageNumber(), limit, count);
     }
 
-    private Page<R> doubleRequest( // NOSONAR
-            CriteriaBuilder cb,
-            Class<R> rootClazz,
-            SearchCriteria searchCriteria,
-            Map<String, IFilterConfig<R, ?>> filterMap,
-            Map<String, ISorterConfig<R>> sorterMap,
-            long count,
-            String stringIdPath,
-            String entityGraphName
-    ) {
+    private List<R> doubleRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, String entityGraphName, int firstResult, int maxResults) {
         CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
-        criteriaQuery.distinct(true);
-        Root<R> root = criteriaQuery.from(rootClazz);
+        criteriaQuery.distinct(plan.needJoin());
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
         Map<String, Join<R, ?>> joins = new HashMap<>();
+        String stringIdPath = plan.getIdPath();
+        ParameterBinder binder = newParameterBinder(cb);
 
         // Get the predicate for filtering the search results
-        criteriaQuery.where(getPredicates(searchCriteria, rootClazz, filterMap, root, cb, joins));
+        criteriaQuery.where(getPredicates(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins));
 
-        int limit = searchCriteria.getSize();
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(stringIdPath));
 
-        // Check if the "limit" is set to zero (size is zero)
-        if (limit > 0) {
-            List<Selection<?>> selections = new ArrayList<>();
-            selections.add(root.get(stringIdPath));
-
-            // Set sorting and select elements in the CriteriaQuery
-            List<Order> orders = searchCriteria.getSorts()
-                    .stream().map(
-                            sort -> {
-                                ISorterConfig<R> sorterConfig = sorterMap.get(sort.getKey());
-                                String sorterStringPath = sorterConfig.getSortPath();
-                                if (!stringIdPath.equals(sorterStringPath)) {
-                                    selections.add(SearchUtils.getPath(root, sorterStringPath));
-                                }
-                                return sorterConfig.getOrder(root, cb, sort.getSortDirection());
+        // Set sorting and select elements in the CriteriaQuery
+        List<Order> orders = searchCriteria.getSorts()
+                .stream().map(
+                        sort -> {
+                            String sorterStringPath = plan.getSorterMap().get(sort.getKey()).getSortPath();
+                            if (!stringIdPath.equals(sorterStringPath)) {
+                                selections.add(plan.getSortExpression(sort.getKey(), root, joins));
                             }
-                    )
-                    .toList();
-
-            criteriaQuery.multiselect(selections);
-            criteriaQuery.orderBy(orders);
-
-            // Execute the query with pagination settings
-            TypedQuery<Tuple> typedQuery = entityManager.createQuery(criteriaQuery);
-            typedQuery.setHint("org.hibernate.readOnly", true);
-            typedQuery.setFirstResult(searchCriteria.getPageNumber() * limit);
-            typedQuery.setMaxResults(limit);
+                            return plan.getOrder(sort.getKey(), root, joins, cb, sort.getSortDirection());
+                        }
+                )
+                .toList();
 
-            List<Object> ids = typedQuery.getResultList().stream().map(tuple -> tuple.get(0)).toList();
+        criteriaQuery.select(cb.tuple(selections.toArray(Selection[]::new)));
+        criteriaQuery.orderBy(orders);
 
-            List<R> results = getResult(cb, rootClazz, ids, searchCriteria.getSorts(), sorterMap, entityGraphName);
+        // Execute the query with pagination settings
+        TypedQuery<Tuple> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setHint("org.hibernate.readOnly", true);
+        typedQuery.setFirstResult(firstResult);
+        typedQuery.setMaxResults(maxResults);
 
-            // Return the Page object with the search results and pagination information
-            return new Page<>(results, searchCriteria.getPageNumber(), limit, count);
-        } else if (limit == 0) {
-            // Return the Page object with the search results and pagination information
-            return new Page<>(Collections.emptyList(), searchCriteria.getPageNumber(), limit, count);
-        } else {
-            throw new WrongDataTypeException("Limit cannot be negative");
+        List<Object> ids = typedQuery.getResultList().stream().map(tuple -> tuple.get(0)).toList();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
         }
+        return getResult(cb, plan, ids, searchCriteria.getSorts(), entityGraphName);
     }
 
-    private List<R> getResult(CriteriaBuilder cb, Class<R> rootClazz, List<Object> ids, List<OrderCriteria> sorts, Map<String, ISorterConfig<R>> sorterMap, String eg) {
-        CriteriaQuery<R> cq = cb.createQuery(rootClazz);
-        Root<R> r = cq.from(rootClazz);
-        cq.where(ListObjectFilterOperation.IN_EQUAL.calculate(cb, r.get(SearchUtils.getIdStringPath(rootClazz)), ids));
+    private List<R> getResult(CriteriaBuilder cb, SearchPlan<R> plan, List<Object> ids, List<OrderCriteria> sorts, String eg) {
+        CriteriaQuery<R> cq = cb.createQuery(plan.getRootClazz());
+        Root<R> r = cq.from(plan.getRootClazz());
+        ParameterBinder binder = newParameterBinder(cb);
+        cq.where(ListObjectFilterOperation.IN_EQUAL.calculate(binder.getCriteriaBuilder(), r.get(plan.getIdPath()), ids));
         cq.orderBy(sorts.stream()
-                .map(sort -> sorterMap.get(sort.getKey()).getOrder(r, cb, sort.getSortDirection()))
+                .map(sort -> plan.getOrder(sort.getKey(), r, Map.of(), cb, sort.getSortDirection()))
                 .toList());
 
-        TypedQuery<R> tq = entityManager.createQuery(cq);
+        TypedQuery<R> tq = binder.bind(entityManager.createQuery(cq));
         tq.setHint("org.hibernate.readOnly", true);
 
         if (eg != null) {
@@ -333,18 +786,142 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         return tq.getResultList();
     }
 
-    private Predicate getPredicates(SearchCriteria searchCriteria, Class<R> rootClazz, Map<String, IFilterConfig<R, ?>> filterMap, Root<R> root, CriteriaBuilder cb, Map<String, Join<R, ?>> joins) {
-        return cb.and(searchCriteria.getFilters()
+    private KeysetPage<R> keysetRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, String cursor) {
+        int limit = getLimit(searchCriteria);
+        if (limit == 0) {
+            return new KeysetPage<>(Collections.emptyList(), limit, null, null);
+        }
+
+        // Keys of the seek : the sorted fields, then the id as a tiebreaker if the sorts are not already unique
+        List<OrderCriteria> sorts = searchCriteria.getSorts();
+        boolean sortedById = sorts.stream().anyMatch(sort -> plan.getIdPath().equals(plan.getSorterMap().get(sort.getKey()).getSortPath()));
+        List<Class<?>> keyClasses = new ArrayList<>();
+        sorts.forEach(sort -> keyClasses.add(plan.getSortClass(sort.getKey())));
+        if (!sortedById) {
+            keyClasses.add(plan.getIdClass());
+        }
+        KeysetCursor keysetCursor = cursor == null ? null : KeysetCursor.decode(cursor, keyClasses);
+        boolean backward = keysetCursor != null && keysetCursor.isBackward();
+
+        CriteriaQuery<Tuple> criteriaQuery = cb.createTupleQuery();
+        criteriaQuery.distinct(plan.needJoin());
+        Root<R> root = criteriaQuery.from(plan.getRootClazz());
+        Map<String, Join<R, ?>> joins = new HashMap<>();
+
+        // Get the predicate for filtering the search results first, so that the sorts reuse its joins
+        ParameterBinder binder = newParameterBinder(cb);
+        Predicate predicate = getPredicates(plan, root, criteriaQuery, binder.getCriteriaBuilder(), joins);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root);
+        List<Expression<?>> keys = new ArrayList<>();
+        List<SortDirection> directions = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        sorts.forEach(sort -> {
+            SortDirection direction = backward ? sort.getSortDirection().reverse() : sort.getSortDirection();
+            keys.add(plan.getSortExpression(sort.getKey(), root, joins));
+            directions.add(direction);
+            orders.add(plan.getOrder(sort.getKey(), root, joins, cb, direction));
+        });
+        if (!sortedById) {
+            SortDirection direction = backward ? SortDirection.DESC : SortDirection.ASC;
+            keys.add(root.get(plan.getIdPath()));
+            directions.add(direction);
+            orders.add(direction.getOrder(cb, root.get(plan.getIdPath())));
+        }
+        selections.addAll(keys);
+
+        // Add the predicate seeking after the cursor
+        if (keysetCursor != null) {
+            predicate = cb.and(predicate, getKeysetPredicate(binder.getCriteriaBuilder(), keys, directions, keysetCursor.getValues()));
+        }
+        criteriaQuery.select(cb.tuple(selections.toArray(Selection[]::new)));
+        criteriaQuery.where(predicate);
+        criteriaQuery.orderBy(orders);
+
+        // Fetch one more row than needed to know if there is something after this page
+        TypedQuery<Tuple> typedQuery = binder.bind(entityManager.createQuery(criteriaQuery));
+        typedQuery.setHint("org.hibernate.readOnly", true);
+        typedQuery.setMaxResults(limit == Integer.MAX_VALUE ? limit : limit + 1);
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        boolean hasMore = tuples.size() > limit;
+        List<Tuple> rows = new ArrayList<>(hasMore ? tuples.subList(0, limit) : tuples);
+        if (backward) {
+            Collections.reverse(rows);
+        }
+
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!rows.isEmpty()) {
+            if (backward || hasMore) {
+                nextCursor = KeysetCursor.encode(getKeyValues(rows.get(rows.size() - 1), keys.size()), false);
+            }
+            if (backward ? hasMore : keysetCursor != null) {
+                previousCursor = KeysetCursor.encode(getKeyValues(rows.get(0), keys.size()), true);
+            }
+        }
+        List<R> results = rows.stream().map(tuple -> (R) tuple.get(0)).toList();
+        return new KeysetPage<>(results, limit, nextCursor, previousCursor);
+    }
+
+    /**
+     * Build the seek predicate : (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... where > becomes &lt; for descending keys.
+     */
+    private Predicate getKeysetPredicate(CriteriaBuilder cb, List<Expression<?>> keys, List<SortDirection> directions, List<Object> values) {
+        List<Predicate> orPredicates = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Expression<?> key = keys.get(i);
+            Object value = values.get(i);
+            if (value != null) {
+                List<Predicate> andPredicates = new ArrayList<>(equalities);
+                andPredicates.add(getSeekPredicate(cb, key, value, directions.get(i)));
+                orPredicates.add(cb.and(andPredicates.toArray(Predicate[]::new)));
+            }
+            equalities.add(ObjectFilterOperation.EQUAL.calculate(cb, key, value));
+        }
+        return cb.or(orPredicates.toArray(Predicate[]::new));
+    }
+
+    /**
+     * Build the predicate seeking past the value of one key. The cursor values are decoded into the class of their sort,
+     * so a key and its value always share the same comparable type.
+     */
+    private static <T extends Comparable<? super T>> Predicate getSeekPredicate(CriteriaBuilder cb, Expression<?> key, Object value, SortDirection direction) {
+        Expression<? extends T> comparableKey = (Expression<? extends T>) key;
+        T comparableValue = (T) value;
+        return direction == SortDirection.ASC ? cb.greaterThan(comparableKey, comparableValue) : cb.lessThan(comparableKey, comparableValue);
+    }
+
+    private List<Object> getKeyValues(Tuple tuple, int keyCount) {
+        List<Object> values = new ArrayList<>(keyCount);
+        for (int i = 1; i <= keyCount; i++) {
+            values.add(tuple.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Get the predicate selecting each matching root row once. Filters needing joins are applied on the ids of a subquery
+     * holding the joins, so that the query itself never joins a collection for filtering.
+     */
+    private Predicate getRowPredicate(SearchPlan<R> plan, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R, ?>> joins) {
+        if (!plan.needJoin()) {
+            return getPredicates(plan, root, query, cb, joins);
+        }
+        Subquery<Object> subquery = query.subquery(Object.class);
+        Root<R> subRoot = subquery.from(plan.getRootClazz());
+        subquery.select(subRoot.get(plan.getIdPath()));
+        subquery.where(getPredicates(plan, subRoot, subquery, cb, new HashMap<>()));
+        return root.get(plan.getIdPath()).in(subquery);
+    }
+
+    private Predicate getPredicates(SearchPlan<R> plan, Root<R> root, AbstractQuery<?> query, CriteriaBuilder cb, Map<String, Join<R, ?>> joins) {
+        Class<R> rootClazz = plan.getRootClazz();
+        return cb.and(plan.getBoundFilters()
                 .stream()
-                .map(filter -> {
-                    IFilterConfig filterConfig = filterMap.get(filter.getKey());
-                    Class<?> filterClazz = filterConfig.getEntryClass(rootClazz);
-                    if (filterConfig.needMultipleValues()) {
-                        return filterConfig.getPredicate(rootClazz, root, cb, joins, List.of(filter.getValues()));
-                    }
-                    String value = SearchUtils.isEmpty(filter.getValues()) ? null : filter.getValues()[0];
-                    return filterConfig.getPredicate(rootClazz, root, cb, joins, CastService.cast(value, filterClazz));
-                })
+                .map(filter -> filter.filterConfig().getPredicate(rootClazz, root, query, cb, joins, filter.value()))
                 .toArray(Predicate[]::new));
     }
 
@@ -356,6 +933,7 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
      * @return The formatted search criteria.
      */
     private SearchCriteria format(Class<E> configClazz, Map<String, String> rawValues, List<String> sorts) {
+        CriteriaRegistry<R> registry = CriteriaRegistry.of(configClazz);
         final SearchCriteria searchCriteria = new SearchCriteria();
         if (rawValues.containsKey(PAGE)) {
             searchCriteria.setPageNumber(getOneElement(PAGE, Integer.class, rawValues.remove(PAGE)));
@@ -365,33 +943,36 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         }
         rawValues.remove(SORTS);
         if (sorts == null || sorts.isEmpty()) {
-            searchCriteria.setSorts(List.of(getDefaultOrderCriteria(configClazz)));
+            searchCriteria.setSorts(List.of(registry.getDefaultOrderCriteria()));
         } else {
             searchCriteria.setSorts(getSorts(sorts));
         }
         if (rawValues.isEmpty()) {
             searchCriteria.setFilters(new HashSet<>());
         } else {
-            searchCriteria.setFilters(getFilters(configClazz.getEnumConstants(), rawValues));
+            searchCriteria.setFilters(getFilters(registry, rawValues));
         }
         return searchCriteria;
     }
 
 
-    private Set<FilterCriteria> getFilters(E[] enums, Map<String, String> rawValues) {
+    private Set<FilterCriteria> getFilters(CriteriaRegistry<R> registry, Map<String, String> rawValues) {
         Set<FilterCriteria> filters = new HashSet<>();
         if (!rawValues.isEmpty()) {
-            for (ISearchCriteriaConfig<R> e : enums) {
-                String key = e.getKey();
-                if (rawValues.containsKey(key)) {
-                    String value = rawValues.remove(key);
+            Iterator<Map.Entry<String, String>> iterator = rawValues.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, String> rawValue = iterator.next();
+                IFilterConfig<R, ?> filterConfig = registry.findFilter(rawValue.getKey());
+                if (filterConfig != null) {
+                    String value = rawValue.getValue();
+                    iterator.remove();
                     String[] values;
-                    if (!SearchUtils.isBlank(value) && e.needMultipleValues()) {
+                    if (!SearchUtils.isBlank(value) && filterConfig.needMultipleValues()) {
                         values = (String[]) CastService.cast(value, List.class).toArray(String[]::new);
                     } else {
                         values = new String[]{value};
                     }
-                    filters.add(new FilterCriteria(key, values));
+                    filters.add(new FilterCriteria(rawValue.getKey(), values));
                 }
             }
             if (!rawValues.isEmpty()) {
@@ -401,10 +982,6 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         return filters;
     }
 
-    private OrderCriteria getDefaultOrderCriteria(Class<E> enumClazz) {
-        return enumClazz.getEnumConstants()[0].getDefaultOrderCriteria();
-    }
-
     private <X> X getOneElement(String key, Class<X> clazz, String... values) {
         if (values.length != 1) {
             throw new WrongElementNumberException(String.format("Only one element is expected for filter %s", key));
@@ -427,10 +1004,134 @@ public class SearchCriteriaRepository<R extends SearchableEntity, E extends Enum
         return ordersCriteria;
     }
 
-    private Long getCount(CriteriaBuilder cb, Class<R> rootClazz, Map<String, IFilterConfig<R, ?>> filterMap, SearchCriteria searchCriteria, String idPath) {
+    private int getLimit(SearchCriteria searchCriteria) {
+        int limit = searchCriteria.getSize();
+        if (limit < 0) {
+            throw new WrongDataTypeException("Limit cannot be negative");
+        }
+        return limit;
+    }
+
+    private Page<R> getPage(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, List<R> results, int limit) {
+        Long count = countStrategy.isSkipped() ? null : getTotal(cb, plan, searchCriteria);
+        return toPage(results, count, searchCriteria.getPageNumber(), limit);
+    }
+
+    private Long getTotal(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria) {
+        if (countCache != null) {
+            SearchCacheKey key = SearchCacheKey.ofFilters(plan.getConfigClazz(), searchCriteria, "count", countStrategy);
+            return countCache.get(key, plan.getRootClazz(), () -> countRequest(cb, plan, searchCriteria));
+        }
+        return countRequest(cb, plan, searchCriteria);
+    }
+
+    private Long countRequest(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria) {
+        if (countStrategy.isCapped()) {
+            return getCappedCount(cb, plan, searchCriteria, countStrategy.getCap());
+        }
+        return getCount(cb, plan, searchCriteria);
+    }
+
+    private <T> Page<T> toPage(List<T> results, Long count, int pageNumber, int limit) {
+        if (countStrategy.isExact()) {
+            return new Page<>(results, pageNumber, limit, count, true);
+        }
+        // Without exact count, the page itself tells that at least the rows up to its last one exist
+        long lowerBound = results.isEmpty() ? 0L : (long) pageNumber * limit + results.size();
+        if (countStrategy.isCapped()) {
+            long cap = countStrategy.getCap();
+            if (count <= cap) {
+                return new Page<>(results, pageNumber, limit, count, true);
+            }
+            return new Page<>(results, pageNumber, limit, Math.max(cap, lowerBound), false);
+        }
+        return new Page<>(results, pageNumber, limit, lowerBound, false);
+    }
+
+    /**
+     * Run the page query and the count query concurrently, each one on its own entity manager.
+     * If one of them fails, the other one is cancelled and the failure is rethrown.
+     */
+    private <D> Page<D> concurrentRequest(SearchPlan<R> plan, SearchCriteria searchCriteria, Function<R, D> mapper, String entityGraphName, int limit) {
+        CompletionService<Object> completionService = new ExecutorCompletionService<>(executorService != null ? executorService : SearchExecutor.get());
+        Future<Object> resultsFuture = completionService.submit(() -> inNewEntityManager(repository -> {
+            List<R> results = repository.getResults(repository.entityManager.getCriteriaBuilder(), plan, searchCriteria, entityGraphName, searchCriteria.getPageNumber() * limit, limit);
+            return mapper == null ? results : results.stream().map(mapper).toList();
+        }));
+        Future<Object> countFuture = completionService.submit(() -> inNewEntityManager(repository -> repository.getTotal(repository.entityManager.getCriteriaBuilder(), plan, searchCriteria)));
+        try {
+            // Wait for the first query to complete, so that a failure cancels the other one without waiting for it
+            completionService.take().get();
+            completionService.take().get();
+            return toPage((List<D>) resultsFuture.get(), (Long) countFuture.get(), searchCriteria.getPageNumber(), limit);
+        } catch (ExecutionException e) {
+            resultsFuture.cancel(true);
+            countFuture.cancel(true);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new JpaSearchException("Concurrent search failed", e.getCause());
+        } catch (InterruptedException e) {
+            resultsFuture.cancel(true);
+            countFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new JpaSearchException("Concurrent search interrupted", e);
+        }
+    }
+
+    private <X> X inNewEntityManager(Function<SearchCriteriaRepository<R, E>, X> work) {
+        EntityManager workerEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            return work.apply(withEntityManager(workerEntityManager));
+        } finally {
+            workerEntityManager.close();
+        }
+    }
+
+    /**
+     * Copy this repository, with its settings, on another entity manager.
+     */
+    private SearchCriteriaRepository<R, E> withEntityManager(EntityManager otherEntityManager) {
+        SearchCriteriaRepository<R, E> repository = new SearchCriteriaRepository<>(otherEntityManager);
+        repository.singleRoundTrip = singleRoundTrip;
+        repository.countStrategy = countStrategy;
+        repository.fetchStrategy = fetchStrategy;
+        repository.streamFetchSize = streamFetchSize;
+        repository.parameterized = parameterized;
+        repository.searchCache = searchCache;
+        repository.countCache = countCache;
+        repository.pathResolver = pathResolver;
+        return repository;
+    }
+
+    /**
+     * Count the matching elements, stopping after cap + 1 of them. JPA subqueries cannot be limited,
+     * so the limit is applied on a query reading the ids of the matching elements.
+     */
+    private long getCappedCount(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria, long cap) {
+        CriteriaQuery<Object> idQuery = cb.createQuery(Object.class);
+        Root<R> root = idQuery.from(plan.getRootClazz());
+        idQuery.select(root.get(plan.getIdPath()));
+        idQuery.distinct(plan.needJoin());
+        ParameterBinder binder = newParameterBinder(cb);
+        idQuery.where(getPredicates(plan, root, idQuery, binder.getCriteriaBuilder(), new HashMap<>()));
+
+        TypedQuery<Object> typedQuery = binder.bind(entityManager.createQuery(idQuery));
+        typedQuery.setMaxResults(cap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) cap + 1);
+        return typedQuery.getResultList().size();
+    }
+
+    private Long getCount(CriteriaBuilder cb, SearchPlan<R> plan, SearchCriteria searchCriteria) {
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<R> root = countQuery.from(rootClazz);
-        countQuery.select(cb.countDistinct(root.get(idPath))).where(getPredicates(searchCriteria, rootClazz, filterMap, root, cb, new HashMap<>()));
-        return entityManager.createQuery(countQuery).getSingleResult();
+        Root<R> root = countQuery.from(plan.getRootClazz());
+        ParameterBinder binder = newParameterBinder(cb);
+        // Without join, the root rows cannot be duplicated : a plain count avoids the aggregate of a distinct count
+        Expression<Long> count = plan.needJoin() ? cb.countDistinct(root.get(plan.getIdPath())) : cb.count(root);
+        countQuery.select(count).where(getPredicates(plan, root, countQuery, binder.getCriteriaBuilder(), new HashMap<>()));
+        return binder.bind(entityManager.createQuery(countQuery)).getSingleResult();
+    }
+
+    private ParameterBinder newParameterBinder(CriteriaBuilder cb) {
+        return ParameterBinder.of(cb, parameterized);
     }
 }
\ No newline at end of file
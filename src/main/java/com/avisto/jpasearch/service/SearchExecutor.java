@@ -0,0 +1,52 @@
+package com.avisto.jpasearch.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default executor of the queries a search runs concurrently.
+ * It uses virtual threads when the running JVM provides them, and a bounded pool of daemon threads otherwise.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class SearchExecutor {
+
+    private SearchExecutor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    static ExecutorService get() {
+        return EXECUTOR;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Looked up by reflection : the library is compiled for Java 17, which has no virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jpa-search-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.avisto.jpasearch.service;
+
+import com.avisto.jpasearch.FilterCriteria;
+import com.avisto.jpasearch.SearchCriteria;
+import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.config.FilterSorterConfig;
+import com.avisto.jpasearch.config.IFilterConfig;
+import com.avisto.jpasearch.config.ISearchCriteriaConfig;
+import com.avisto.jpasearch.config.ISorterConfig;
+import com.avisto.jpasearch.config.SorterConfig;
+import com.avisto.jpasearch.model.SortDirection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
+
+
+/**
+ * Compiled form of a search : everything that only depends on the criteria enum and on the requested filter and sorter keys.
+ * Plans are built once and kept in a concurrent cache, so that a request only has to bind its values and execute its queries.
+ *
+ * @param <R> The type of the entity that is searchable and used for search operations.
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+final class SearchPlan<R extends SearchableEntity> {
+
+    /**
+     * Upper bound of the number of filter and sorter key combinations kept in cache.
+     * Once reached, new combinations are still compiled but no longer cached.
+     */
+    static final int MAX_CACHED_PLANS = 4096;
+
+    private static final Map<PlanKey, SearchPlan<?>> PLANS = new ConcurrentHashMap<>();
+
+    private final Class<?> configClazz;
+    private final Class<R> rootClazz;
+    private final String idPath;
+    private final Map<String, IFilterConfig<R, ?>> filterMap;
+    private final Map<String, ISorterConfig<R>> sorterMap;
+    private final Map<String, Class<?>> entryClasses;
+    private final boolean needJoin;
+    private final Class<?> idClass;
+    private final Map<String, Class<?>> sortClasses;
+    private final Map<String, String[]> sortSegments;
+    private final MetamodelPathResolver pathResolver;
+    private final Map<String, AttributePath> sortPaths;
+    private final Map<String, List<SortJoin>> sortJoins;
+    private final List<BoundFilter<R>> boundFilters;
+
+    private SearchPlan(Class<?> configClazz, Class<R> rootClazz, String idPath, Map<String, IFilterConfig<R, ?>> filterMap, Map<String, ISorterConfig<R>> sorterMap, MetamodelPathResolver pathResolver) {
+        this.configClazz = configClazz;
+        this.rootClazz = rootClazz;
+        this.idPath = idPath;
+        this.pathResolver = pathResolver;
+        this.idClass = pathResolver == null ? SearchUtils.getEntityClass(rootClazz, idPath) : pathResolver.resolve(rootClazz, idPath).javaType();
+        this.filterMap = Collections.unmodifiableMap(filterMap);
+        this.sorterMap = Collections.unmodifiableMap(sorterMap);
+        Map<String, AttributePath> paths = new HashMap<>();
+        if (pathResolver != null) {
+            sorterMap.forEach((key, sorterConfig) -> {
+                // Only the sorters known to order on their sort path can be ordered through the resolved attributes
+                if (sorterConfig instanceof SorterConfig<R> || sorterConfig instanceof FilterSorterConfig<R, ?>) {
+                    AttributePath sortPath = pathResolver.resolve(rootClazz, sorterConfig.getSortPath());
+                    if (!sortPath.needJoin()) {
+                        paths.put(key, sortPath);
+                    }
+                }
+            });
+        }
+        this.sortPaths = Collections.unmodifiableMap(paths);
+        Map<String, Class<?>> classes = new HashMap<>();
+        filterMap.forEach((key, filterConfig) -> classes.put(key, filterConfig.getEntryClass(rootClazz)));
+        this.entryClasses = Collections.unmodifiableMap(classes);
+        this.needJoin = filterMap.values().stream().anyMatch(IFilterConfig::needJoin);
+        this.sortClasses = new ConcurrentHashMap<>();
+        Map<String, String[]> segments = new HashMap<>();
+        sorterMap.forEach((key, sorterConfig) -> segments.put(key, SearchUtils.splitPath(sorterConfig.getSortPath())));
+        this.sortSegments = Collections.unmodifiableMap(segments);
+        Map<String, List<SortJoin>> joins = new HashMap<>();
+        sorterMap.forEach((key, sorterConfig) -> {
+            String[] sortSegments = segments.get(key);
+            if ((sorterConfig instanceof SorterConfig<R> || sorterConfig instanceof FilterSorterConfig<R, ?>) && sortSegments.length > 1) {
+                // Longest prefix first : the sort starts from the deepest association already joined by a filter
+                List<SortJoin> sortJoinList = new ArrayList<>();
+                for (int i = sortSegments.length - 1; i > 0; i--) {
+                    sortJoinList.add(new SortJoin(String.join(DOT, Arrays.copyOfRange(sortSegments, 0, i)), Arrays.copyOfRange(sortSegments, i, sortSegments.length)));
+                }
+                joins.put(key, List.copyOf(sortJoinList));
+            }
+        });
+        this.sortJoins = Collections.unmodifiableMap(joins);
+        this.boundFilters = List.of();
+    }
+
+    private SearchPlan(SearchPlan<R> plan, List<BoundFilter<R>> boundFilters) {
+        this.configClazz = plan.configClazz;
+        this.rootClazz = plan.rootClazz;
+        this.idPath = plan.idPath;
+        this.idClass = plan.idClass;
+        this.filterMap = plan.filterMap;
+        this.sorterMap = plan.sorterMap;
+        this.entryClasses = plan.entryClasses;
+        this.needJoin = plan.needJoin;
+        this.sortClasses = plan.sortClasses;
+        this.sortSegments = plan.sortSegments;
+        this.pathResolver = plan.pathResolver;
+        this.sortPaths = plan.sortPaths;
+        this.sortJoins = plan.sortJoins;
+        this.boundFilters = boundFilters;
+    }
+
+    /**
+     * Get the plan matching the filter and sorter keys of a search criteria, compiling it on first use.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The search criteria to plan
+     * @return The compiled search plan
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     * @param <E> Criteria Enum
+     */
+    static <R extends SearchableEntity, E extends Enum<E> & ISearchCriteriaConfig<R>> SearchPlan<R> of(Class<E> configClazz, SearchCriteria searchCriteria) {
+        return of(configClazz, searchCriteria, null);
+    }
+
+    /**
+     * Get the plan matching the filter and sorter keys of a search criteria, compiling it on first use.
+     * With a path resolver, the sorter and id paths are resolved through the JPA metamodel when the plan is compiled.
+     *
+     * @param configClazz Criteria Class
+     * @param searchCriteria The search criteria to plan
+     * @param pathResolver The metamodel path resolver, null to resolve the paths by reflection
+     * @return The compiled search plan
+     * @param <R> The type of the entity that is searchable and used for search operations.
+     * @param <E> Criteria Enum
+     */
+    static <R extends SearchableEntity, E extends Enum<E> & ISearchCriteriaConfig<R>> SearchPlan<R> of(Class<E> configClazz, SearchCriteria searchCriteria, MetamodelPathResolver pathResolver) {
+        PlanKey key = new PlanKey(configClazz, Set.copyOf(searchCriteria.getFilterKeys()), List.copyOf(searchCriteria.getSorterKeys()), pathResolver);
+        SearchPlan<R> plan = (SearchPlan<R>) PLANS.get(key);
+        if (plan == null) {
+            plan = compile(configClazz, key);
+            if (PLANS.size() < MAX_CACHED_PLANS) {
+                SearchPlan<R> previous = (SearchPlan<R>) PLANS.putIfAbsent(key, plan);
+                if (previous != null) {
+                    plan = previous;
+                }
+            }
+        }
+        return plan;
+    }
+
+    private static <R extends SearchableEntity, E extends Enum<E> & ISearchCriteriaConfig<R>> SearchPlan<R> compile(Class<E> configClazz, PlanKey key) {
+        CriteriaRegistry<R> registry = CriteriaRegistry.of(configClazz);
+        Class<R> rootClazz = registry.getRootClazz();
+        Map<String, IFilterConfig<R, ?>> filterMap = registry.getFilters(key.filterKeys());
+        Map<String, ISorterConfig<R>> sorterMap = registry.getSorters(key.sorterKeys());
+        return new SearchPlan<>(configClazz, rootClazz, SearchUtils.getIdStringPath(rootClazz), filterMap, sorterMap, key.pathResolver());
+    }
+
+    /**
+     * Cast the filter values of a search criteria once, so that every query of the search builds its predicates from the same typed values.
+     * The cached plan is left untouched : the returned plan shares its compiled state and only adds the bound values.
+     *
+     * @param searchCriteria The search criteria whose values are bound, with the same filter keys as the plan
+     * @return The bound plan
+     */
+    SearchPlan<R> bind(SearchCriteria searchCriteria) {
+        // Filters are held in a hash set : order them by key so that the same filters always render the same query
+        List<BoundFilter<R>> filters = searchCriteria.getFilters()
+                .stream()
+                .sorted(Comparator.comparing(FilterCriteria::getKey))
+                .map(filter -> {
+                    IFilterConfig<R, Object> filterConfig = (IFilterConfig<R, Object>) filterMap.get(filter.getKey());
+                    Class<Object> entryClazz = (Class<Object>) entryClasses.get(filter.getKey());
+                    return new BoundFilter<>(filterConfig, filterConfig.bind(rootClazz, entryClazz, filter.getValues()));
+                })
+                .toList();
+        return new SearchPlan<>(this, filters);
+    }
+
+    /**
+     * Get the filters bound by {@link SearchPlan#bind(SearchCriteria)}, ordered by key.
+     *
+     * @return The bound filters, empty if the plan is not bound
+     */
+    List<BoundFilter<R>> getBoundFilters() {
+        return boundFilters;
+    }
+
+    Class<?> getConfigClazz() {
+        return configClazz;
+    }
+
+    Class<R> getRootClazz() {
+        return rootClazz;
+    }
+
+    String getIdPath() {
+        return idPath;
+    }
+
+    Map<String, IFilterConfig<R, ?>> getFilterMap() {
+        return filterMap;
+    }
+
+    Map<String, ISorterConfig<R>> getSorterMap() {
+        return sorterMap;
+    }
+
+    /**
+     * Get the class in which the raw values of a filter have to be cast.
+     *
+     * @param filterKey The key of the filter
+     * @return The entry class of the filter
+     */
+    Class<?> getEntryClass(String filterKey) {
+        return entryClasses.get(filterKey);
+    }
+
+    /**
+     * Get the class of the field a sorter sorts on.
+     *
+     * @param sorterKey The key of the sorter
+     * @return The class of the sorted field
+     */
+    Class<?> getSortClass(String sorterKey) {
+        AttributePath sortPath = sortPaths.get(sorterKey);
+        if (sortPath != null) {
+            return sortPath.javaType();
+        }
+        return sortClasses.computeIfAbsent(sorterKey, key -> SearchUtils.getEntityClass(rootClazz, sorterMap.get(key).getSortPath()));
+    }
+
+    /**
+     * Get the class of the @Id or @EmbeddedId of the root entity.
+     *
+     * @return The class of the id
+     */
+    Class<?> getIdClass() {
+        return idClass;
+    }
+
+    /**
+     * Return if one of the planned filters needs a join, which may duplicate root rows.
+     * @return boolean
+     */
+    boolean needJoin() {
+        return needJoin;
+    }
+
+    /**
+     * Get the order of a sorter. It starts from the join of an association already joined by the filters of the query,
+     * then walks its resolved attributes when the plan has a path resolver.
+     *
+     * @param sorterKey The key of the sorter
+     * @param root The root of the query
+     * @param joins The joins made by the filters of the query
+     * @param cb The criteria builder
+     * @param sortDirection The direction of the sort
+     * @return The order
+     */
+    Order getOrder(String sorterKey, Root<R> root, Map<String, Join<R, ?>> joins, CriteriaBuilder cb, SortDirection sortDirection) {
+        Path<?> joinedPath = getJoinedSortPath(sorterKey, joins);
+        if (joinedPath != null) {
+            return sortDirection.getOrder(cb, joinedPath);
+        }
+        AttributePath sortPath = sortPaths.get(sorterKey);
+        if (sortPath != null) {
+            return sortDirection.getOrder(cb, sortPath.get(root));
+        }
+        return sorterMap.get(sorterKey).getOrder(root, cb, sortDirection);
+    }
+
+    /**
+     * Get the expression a sorter sorts on.
+     *
+     * @param sorterKey The key of the sorter
+     * @param root The root of the query
+     * @param joins The joins made by the filters of the query
+     * @return The sorted expression
+     */
+    Path<?> getSortExpression(String sorterKey, Root<R> root, Map<String, Join<R, ?>> joins) {
+        Path<?> joinedPath = getJoinedSortPath(sorterKey, joins);
+        if (joinedPath != null) {
+            return joinedPath;
+        }
+        AttributePath sortPath = sortPaths.get(sorterKey);
+        if (sortPath != null) {
+            return sortPath.get(root);
+        }
+        return SearchUtils.getPath(root, sortSegments.get(sorterKey));
+    }
+
+    private Path<?> getJoinedSortPath(String sorterKey, Map<String, Join<R, ?>> joins) {
+        if (!joins.isEmpty()) {
+            for (SortJoin sortJoin : sortJoins.getOrDefault(sorterKey, List.of())) {
+                Join<R, ?> join = joins.get(sortJoin.joinPath());
+                if (join != null) {
+                    return SearchUtils.getPath(join, sortJoin.segments());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the path of a field of the root entity, through the metamodel when the plan has a path resolver.
+     *
+     * @param root The root of the query
+     * @param path The field path
+     * @return The path
+     */
+    Path<?> getPath(Root<R> root, String path) {
+        if (pathResolver != null) {
+            return pathResolver.resolve(rootClazz, path).get(root);
+        }
+        return SearchUtils.getPath(root, path);
+    }
+
+    /**
+     * Get the path of a selected field of the root entity. The associations of the path are LEFT joined, reusing the joins
+     * of the query, so that a row whose association is null is still selected, as it is counted.
+     *
+     * @param root The root of the query
+     * @param joins The joins of the query, by path, completed with the joined associations
+     * @param path The field path
+     * @return The path
+     */
+    Path<?> getSelectedPath(Root<R> root, Map<String, Join<R, ?>> joins, String path) {
+        int lastIndex = path.lastIndexOf(DOT);
+        if (lastIndex == -1) {
+            return getPath(root, path);
+        }
+        return getJoin(root, joins, path.substring(0, lastIndex)).get(path.substring(lastIndex + 1));
+    }
+
+    private Join<R, ?> getJoin(Root<R> root, Map<String, Join<R, ?>> joins, String joinPath) {
+        Join<R, ?> join = joins.get(joinPath);
+        if (join == null) {
+            int lastIndex = joinPath.lastIndexOf(DOT);
+            From<R, ?> parent = lastIndex == -1 ? root : getJoin(root, joins, joinPath.substring(0, lastIndex));
+            join = (Join<R, ?>) (Join<?, ?>) parent.join(joinPath.substring(lastIndex + 1), JoinType.LEFT);
+            joins.put(joinPath, join);
+        }
+        return join;
+    }
+
+    /**
+     * Get the class of a field of the root entity, through the metamodel when the plan has a path resolver.
+     *
+     * @param path The field path
+     * @return The class of the field
+     */
+    Class<?> getPathClass(String path) {
+        if (pathResolver != null) {
+            return pathResolver.resolve(rootClazz, path).javaType();
+        }
+        return SearchUtils.getEntityClass(rootClazz, path);
+    }
+
+    /**
+     * Association of a sort path that a filter may already have joined, and the rest of the path from this association.
+     */
+    private record SortJoin(String joinPath, String[] segments) {
+    }
+
+    private record PlanKey(Class<?> configClazz, Set<String> filterKeys, List<String> sorterKeys, MetamodelPathResolver pathResolver) {
+    }
+}
@@ -7,28 +7,25 @@ import com.avisto.jpasearch.config.ISearchCriteriaConfig;
 import com.avisto.jpasearch.config.ISorterConfig;
 import com.avisto.jpasearch.exception.CannotSortException;
 import com.avisto.jpasearch.exception.EmptyCriteriaException;
-import com.avisto.jpasearch.exception.FieldNotInCriteriaException;
 import com.avisto.jpasearch.exception.FieldPathNotFoundException;
 import com.avisto.jpasearch.exception.KeyDuplicateException;
 import com.avisto.jpasearch.exception.WrongDataTypeException;
+import static com.avisto.jpasearch.service.SearchConstants.Strings.DOT;
 import static com.avisto.jpasearch.service.SearchConstants.Strings.EMPTY_STRING;
 import static com.avisto.jpasearch.service.SearchConstants.Strings.REGEX_DOT;
-import jakarta.persistence.EmbeddedId;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.From;
 import jakarta.persistence.criteria.Path;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.text.Normalizer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -60,6 +57,21 @@ public final class SearchUtils {
 
     private static final Pattern STRIP_ACCENTS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
 
+    private static final Pattern DASH_PATTERN = Pattern.compile("\\p{Pd}");
+
+    /**
+     * Characters below this limit are folded through {@link SearchUtils#LATIN_FOLDING} : ASCII, Latin-1 Supplement, Latin Extended-A and B.
+     * None of them is a combining mark, so that they fold one by one the same way the whole string would.
+     */
+    private static final int LATIN_FOLDING_LIMIT = 0x250;
+
+    private static final String[] LATIN_FOLDING = new String[LATIN_FOLDING_LIMIT];
+    static {
+        for (char c = 0; c < LATIN_FOLDING_LIMIT; c++) {
+            LATIN_FOLDING[c] = foldWithNfd(String.valueOf(c));
+        }
+    }
+
     /**
      * Check if it is a primitive type.
      *
@@ -89,14 +101,38 @@ public final class SearchUtils {
      * @throws FieldPathNotFoundException If a field path is not found in the class structure.
      */
     public static Class<?> getEntityClass(Class<?> clazz, String[] paths) {
+        if (paths.length == 0) {
+            return clazz;
+        }
+        if (Arrays.stream(paths).anyMatch(path -> path.contains(DOT))) {
+            // Not a split path : it cannot be cached under its joined form
+            return resolveEntityClass(clazz, paths);
+        }
+        return ClassMetadata.of(clazz).getPathClass(String.join(DOT, paths), path -> resolveEntityClass(clazz, paths));
+    }
+
+    /**
+     * Get the entity class for a given class and a dotted field path, such as "nestedList[nestedField].field".
+     * The resolved class is cached per class and path.
+     *
+     * @param clazz The base class to start the search.
+     * @param path The field path to navigate through the class structure.
+     * @return The entity class that corresponds to the field path.
+     * @throws FieldPathNotFoundException If a field path is not found in the class structure.
+     */
+    public static Class<?> getEntityClass(Class<?> clazz, String path) {
+        return ClassMetadata.of(clazz).getPathClass(path, p -> resolveEntityClass(clazz, p.split(REGEX_DOT)));
+    }
+
+    private static Class<?> resolveEntityClass(Class<?> clazz, String[] paths) {
         if (paths.length == 0) {
             return clazz;
         }
         if (paths[0].contains("[")) {
             paths = Arrays.stream(paths).map(s -> s.split("\\[|\\]")).flatMap(Arrays::stream).toArray(String[]::new);
-            return getEntityClass(getFieldCollectionClass(clazz, paths[0]), Arrays.copyOfRange(paths, 1, paths.length));
+            return resolveEntityClass(getFieldCollectionClass(clazz, paths[0]), Arrays.copyOfRange(paths, 1, paths.length));
         } else {
-            return getEntityClass(getFieldClass(clazz, paths[0]), Arrays.copyOfRange(paths, 1, paths.length));
+            return resolveEntityClass(getFieldClass(clazz, paths[0]), Arrays.copyOfRange(paths, 1, paths.length));
         }
     }
 
@@ -123,11 +159,11 @@ public final class SearchUtils {
         if (clazz == null) {
             throw new FieldPathNotFoundException(String.format("Field path %s not found", value));
         }
-        try {
-            return clazz.getDeclaredField(value);
-        } catch (NoSuchFieldException e) {
-            return getField(clazz.getSuperclass(), value);
+        Field field = ClassMetadata.of(clazz).getField(value);
+        if (field == null) {
+            throw new FieldPathNotFoundException(String.format("Field path %s not found", value));
         }
+        return field;
     }
 
     /**
@@ -156,11 +192,74 @@ public final class SearchUtils {
         if (input == null) {
             return null;
         }
+        int length = input.length();
+        int i = 0;
+        while (i < length && input.charAt(i) < 0x80) {
+            i++;
+        }
+        if (i == length) {
+            // Plain ASCII has neither accents nor dashes other than '-'
+            return input;
+        }
+        StringBuilder folded = new StringBuilder(length).append(input, 0, i);
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= LATIN_FOLDING_LIMIT) {
+                return foldWithNfd(input);
+            }
+            folded.append(LATIN_FOLDING[c]);
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Normalize accents and dashes through the full canonical decomposition of the input.
+     */
+    private static String foldWithNfd(String input) {
         String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        normalized = normalized.replaceAll("\\p{Pd}", "-");
+        normalized = DASH_PATTERN.matcher(normalized).replaceAll("-");
         return stripAccents(normalized);
     }
 
+    /**
+     * Check if a criteria builder binds the literals it is given as parameters, as the one of a parameterized search does.
+     * Other builders inline literals in the SQL, so values should then be passed as they are.
+     *
+     * @param cb The criteria builder
+     * @return True if the literals of the builder are bound as parameters
+     */
+    public static boolean bindsLiteralsAsParameters(CriteriaBuilder cb) {
+        return ParameterBinder.isParameterized(cb);
+    }
+
+    /**
+     * Pad a list of values to the next power of two by repeating its last value, so that IN lists and OR chains of
+     * different lengths render a handful of query shapes. Repeating a value does not change the result of an IN or an OR.
+     * Lists larger than {@link SearchConstants.Limits#MAX_PADDED_LIST_SIZE} are left as they are, since padding them could
+     * exceed the maximum number of elements of an IN list of some databases.
+     *
+     * @param values The values of the IN list
+     * @return The padded values
+     * @param <T> Value type
+     */
+    public static <T> List<T> padToBucketSize(List<T> values) {
+        int size = values.size();
+        if (size <= 1 || size > SearchConstants.Limits.MAX_PADDED_LIST_SIZE) {
+            return values;
+        }
+        int bucketSize = Integer.highestOneBit(size - 1) << 1;
+        if (bucketSize == size) {
+            return values;
+        }
+        List<T> padded = new ArrayList<>(bucketSize);
+        padded.addAll(values);
+        T last = values.get(size - 1);
+        while (padded.size() < bucketSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
     /**
      * Convert a string to lowercase using the root locale.
      *
@@ -254,39 +353,6 @@ public final class SearchUtils {
     }
 
 
-    /**
-     * Get specific SearchConfig by its key and cast it to Filter or Sort
-     *
-     * @param configurations Config elements to search in.
-     * @param key The key of search config.
-     * @param castClass The class of cast needed.
-     * @return The search config with the key mentioned in params.
-     */
-    private static <E extends Enum<?> & ISearchCriteriaConfig<?>, T extends ISearchConfig<?>> T getSearchConfig(E[] configurations, String key, Class<T> castClass) {
-        return Arrays.stream(configurations).
-                filter(e -> Objects.equals(key,e.getKey()) && castClass.isAssignableFrom(e.getSearchConfig().getClass())).
-                map(e -> (T) e.getSearchConfig()).
-                findFirst().
-                orElseThrow(() -> new FieldNotInCriteriaException(String.format("Field %s is not specified in criteria", key)));
-    }
-
-    /**
-     * This method return a map of search configuration with associated key.
-     *
-     * @param configurations Config elements to search in.
-     * @param keys keys of the search config
-     * @param castClass The class of cast needed.
-     * @return Map of search configuration with associated key.
-     * @param <R> The type of the entity that is searchable and used for search operations.
-     * @param <E> Criteria Enum
-     * @param <T> The search config
-     */
-    static <R extends SearchableEntity, E extends Enum<?> & ISearchCriteriaConfig<R>, T extends ISearchConfig<R>> Map<String, T> getSearchConfigMap(E[] configurations, List<String> keys, Class<T> castClass) {
-        Map<String, T> result = new HashMap<>();
-        keys.forEach(key -> result.put(key, SearchUtils.getSearchConfig(configurations, key, castClass)));
-        return result;
-    }
-
     /**
      * Get String Path of Entity @Id or @EmbeddedId
      *
@@ -305,13 +371,9 @@ public final class SearchUtils {
      * @param <R> The type of the entity that is searchable and used for search operations.
      */
     private static <R extends SearchableEntity> String getIdPathFromAnyClass(Class<?> clazz) {
-        if (clazz != null && (clazz.isAnnotationPresent(Entity.class) || clazz.isAnnotationPresent(MappedSuperclass.class))) {
-            for (Field field : clazz.getDeclaredFields()) {
-                if (field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(EmbeddedId.class)) {
-                    return field.getName();
-                }
-            }
-            return getIdPathFromAnyClass(clazz.getSuperclass());
+        String idPath = clazz == null ? null : ClassMetadata.of(clazz).getIdPath();
+        if (idPath != null) {
+            return idPath;
         }
         throw new WrongDataTypeException("this entity needs to declare in it's hierarchy a @Id or @EmbeddedId");
     }
@@ -324,21 +386,40 @@ public final class SearchUtils {
      * @return The Path of a field from Root.
      */
     public static <R extends SearchableEntity> Path<String> getPath(From<R, ?> from, String fieldPath) {
-        if (SearchUtils.isBlank(fieldPath)) {
+        return getPath(from, splitPath(fieldPath));
+    }
+
+    /**
+     * Get path from Root with the segments of a path, split beforehand by {@link SearchUtils#splitPath(String)}.
+     *
+     * @param from Root or From.
+     * @param segments Segments of the field path.
+     * @return The Path of a field from Root, the root itself if there is no segment.
+     */
+    public static <R extends SearchableEntity> Path<String> getPath(From<R, ?> from, String[] segments) {
+        if (segments.length == 0) {
             return (From<R, String>) from;
         }
-        String[] paths = fieldPath.split(REGEX_DOT);
-        Path<String> entityPath = null;
-        for (String path : paths) {
-            if (entityPath == null) {
-                entityPath = from.get(path);
-            } else {
-                entityPath = entityPath.get(path);
-            }
+        Path<String> entityPath = from.get(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            entityPath = entityPath.get(segments[i]);
         }
         return entityPath;
     }
 
+    /**
+     * Split a field path on its dots, so that it can be given to {@link SearchUtils#getPath(From, String[])} many times.
+     *
+     * @param fieldPath String field path.
+     * @return The segments of the path, empty if the path is blank.
+     */
+    public static String[] splitPath(String fieldPath) {
+        if (SearchUtils.isBlank(fieldPath)) {
+            return new String[0];
+        }
+        return fieldPath.split(REGEX_DOT);
+    }
+
     /**
      * Check if the configuration criteria is well declared
      * @deprecated
@@ -384,20 +465,11 @@ public final class SearchUtils {
         if (configurations.length == 0) {
             throw new EmptyCriteriaException("Criteria needs at least one configuration");
         }
-        E firstConfiguration = configurations[0];
-        Class<R> rootClazz = firstConfiguration.getRootClass();
-        Set<String> filterKeys = new HashSet<>();
-        Set<String> sorterKeys = new HashSet<>();
-        for (E e : configurations) {
-            ISearchConfig<R> searchConfig = e.getSearchConfig();
-            if (IFilterConfig.class.isAssignableFrom(searchConfig.getClass()) && (!filterKeys.add(searchConfig.getKey())) ||
-                    ISorterConfig.class.isAssignableFrom(searchConfig.getClass()) && (!sorterKeys.add(searchConfig.getKey()))) {
-                return false;
-            }
-        }
-        if (!sorterKeys.contains(firstConfiguration.getDefaultOrderCriteria().getKey())){
+        CriteriaRegistry<R> registry = CriteriaRegistry.of(configClazz);
+        if (registry.hasDuplicateKeys() || registry.findSorter(registry.getDefaultOrderCriteria().getKey()) == null) {
             return false;
         }
+        Class<R> rootClazz = registry.getRootClazz();
         return Arrays.stream(configurations).allMatch(configuration -> configuration.getSearchConfig().testConfig(rootClazz));
     }
 }
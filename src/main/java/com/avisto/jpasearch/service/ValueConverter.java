@@ -0,0 +1,29 @@
+package com.avisto.jpasearch.service;
+
+/**
+ * Converter of the string values of a search into one of your own value types, so that they can be filtered on.
+ * Converters are either registered with {@link CastService#register(ValueConverter)}, or declared as a service in
+ * META-INF/services/com.avisto.jpasearch.service.ValueConverter, to be loaded with the {@link java.util.ServiceLoader}.
+ *
+ * @param <X> The converted type
+ *
+ * @author Gabriel Revelli
+ * @version 1.0
+ */
+public interface ValueConverter<X> {
+
+    /**
+     * Get the class the values are converted into.
+     *
+     * @return The converted class
+     */
+    Class<X> getType();
+
+    /**
+     * Convert a value. Null and empty values are never passed to the converter, they are cast to null.
+     *
+     * @param value The string value
+     * @return The converted value
+     */
+    X convert(String value);
+}
@@ -11,7 +11,9 @@ import com.avisto.jpasearch.operation.StringFilterOperation;
 public enum CriteriaTestEnum implements ISearchCriteriaConfig<TestEntity> {
     ID(FilterConfig.of("id", ObjectFilterOperation.EQUAL, "id")),
     FIELD1(FilterSorterConfig.of("field1", ObjectFilterOperation.EQUAL, "field1")),
-    FIELD2(FilterConfig.of("field2", StringFilterOperation.CONTAIN_IGNORE_CASE, "field2"));
+    FIELD2(FilterConfig.of("field2", StringFilterOperation.CONTAIN_IGNORE_CASE, "field2")),
+    NESTED_FIELD(FilterConfig.of("nestedField", ObjectFilterOperation.EQUAL, "nestedList[nestedField]")),
+    NESTED_FIELD_EXISTS(FilterConfig.ofExists("nestedFieldExists", ObjectFilterOperation.EQUAL, "nestedList[nestedField]"));
 
     final ISearchConfig<TestEntity> searchConfig;
 
@@ -21,7 +23,7 @@ public enum CriteriaTestEnum implements ISearchCriteriaConfig<TestEntity> {
 
     @Override
     public ISearchConfig<TestEntity> getSearchConfig() {
-        return FilterSorterConfig.of("field1", ObjectFilterOperation.EQUAL, "field1");
+        return searchConfig;
     }
 
     @Override
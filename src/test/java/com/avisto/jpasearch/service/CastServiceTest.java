@@ -3,6 +3,7 @@ package com.avisto.jpasearch.service;
 import com.avisto.jpasearch.exception.TypeNotHandledException;
 import com.avisto.jpasearch.exception.ValueNotFoundInEnumException;
 import com.avisto.jpasearch.exception.WrongDateFormatException;
+import com.avisto.jpasearch.exception.WrongElementNumberException;
 import com.avisto.jpasearch.model.TestEnum;
 import org.junit.jupiter.api.Test;
 
@@ -18,7 +19,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class CastServiceTest {
 
@@ -156,6 +162,14 @@ public class CastServiceTest {
         assertThrows(NumberFormatException.class, () -> CastService.cast(value, Integer.class));
     }
 
+    @Test
+    public void testCastToNumber_WithCommaAndSpaces() {
+        assertEquals(1234567, CastService.cast("1 234 567", Integer.class));
+        assertEquals(1234.5, CastService.cast("1 234,5", Double.class));
+        assertEquals(new BigDecimal("12.5"), CastService.cast("12,5", BigDecimal.class));
+        assertEquals(12.5f, CastService.cast("12,5", float.class));
+    }
+
     @Test
     public void testCastToLong() {
         String value = "123";
@@ -224,5 +238,105 @@ public class CastServiceTest {
 
         assertThrows(TypeNotHandledException.class, () -> CastService.cast(value, char.class));
     }
-}
 
+    @Test
+    public void testParseJsonToList() {
+        assertEquals(List.of("1", "2", "3"), CastService.parseJsonToList("1,2,3"));
+        assertEquals(List.of("a,b", "say \"hi\"", "{\"k\":[1,2]}", "[3,4]"), CastService.parseJsonToList("[\"a,b\", \"say \\\"hi\\\"\",{\"k\":[1,2]},[3,4]]"));
+        assertThrows(WrongElementNumberException.class, () -> CastService.parseJsonToList(",".repeat(SearchConstants.Limits.MAX_JSON_ELEMENTS)));
+    }
+
+    @Test
+    public void testParseJsonToMap() {
+        Map<String, String> map = CastService.parseJsonToMap("{\"name\":\"a:b, c\",\"ids\":[1,2],\"date\":\"2024-01-01T10:00:00\"}");
+        assertEquals(Map.of("name", "a:b, c", "ids", "[1,2]", "date", "2024-01-01T10:00:00"), map);
+    }
+
+    @Test
+    public void testCastToRegisteredType() {
+        ValueConverter<Character> converter = new ValueConverter<>() {
+            @Override
+            public Class<Character> getType() {
+                return char.class;
+            }
+
+            @Override
+            public Character convert(String value) {
+                return value.charAt(0);
+            }
+        };
+        CastService.register(converter);
+        try {
+            assertEquals('A', CastService.cast("AB", char.class));
+            assertNull(CastService.cast("", char.class));
+        } finally {
+            CastService.unregister(char.class);
+        }
+        assertThrows(TypeNotHandledException.class, () -> CastService.cast("AB", char.class));
+    }
+
+    @Test
+    public void testCastToTemporal_SameAsIsoRegex() {
+        Pattern isoRegex = Pattern.compile(SearchConstants.Patterns.GENERIC_ISO_DATETIME_REGEX);
+        String[] seeds = {"2024-02-29", "2024-02-29T23:59:59", "2024-02-29T23:59:59.123456789", "2024-02-29T23:59:59Z",
+                "2024-02-29T23:59:59.5-05:30", "2024-02-29T23:59:59+18:00[Europe/Paris]", "1999-12-31T00:00:00.00000000001"};
+        char[] alphabet = "0123456789-T:.Z+ x\n\r\u2028".toCharArray();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // Mutate a valid date time : replace, insert or remove a few characters
+            StringBuilder value = new StringBuilder(seeds[random.nextInt(seeds.length)]);
+            for (int mutation = random.nextInt(4); mutation > 0 && value.length() > 0; mutation--) {
+                int position = random.nextInt(value.length());
+                switch (random.nextInt(3)) {
+                    case 0 -> value.setCharAt(position, alphabet[random.nextInt(alphabet.length)]);
+                    case 1 -> value.insert(position, alphabet[random.nextInt(alphabet.length)]);
+                    default -> value.deleteCharAt(position);
+                }
+            }
+            for (Class<?> clazz : List.of(LocalDate.class, LocalDateTime.class, ZonedDateTime.class, Instant.class)) {
+                assertEquals(castWithRegex(isoRegex, value.toString(), clazz), castOrException(value.toString(), clazz), value.toString());
+            }
+        }
+    }
+
+    /**
+     * Reference implementation, matching the value against the ISO regex. Exceptions are compared by class.
+     */
+    private static Object castWithRegex(Pattern isoRegex, String value, Class<?> clazz) {
+        try {
+            if (value.isEmpty()) {
+                return null;
+            }
+            Matcher m = isoRegex.matcher(value);
+            if (!m.matches()) {
+                throw new WrongDateFormatException(value);
+            }
+            int year = Integer.parseInt(m.group(1));
+            int month = Integer.parseInt(m.group(2));
+            int day = Integer.parseInt(m.group(3));
+            int hours = m.group(4) == null ? 0 : Integer.parseInt(m.group(4));
+            int minutes = m.group(5) == null ? 0 : Integer.parseInt(m.group(5));
+            int seconds = m.group(6) == null ? 0 : Integer.parseInt(m.group(6));
+            int nanoSeconds = m.group(7) == null ? 0 : Integer.parseInt(m.group(7));
+            ZoneOffset offset = m.group(8) == null ? ZoneOffset.UTC : ZoneOffset.of(m.group(8));
+            if (clazz == LocalDateTime.class) {
+                return LocalDateTime.of(year, month, day, hours, minutes, seconds, nanoSeconds);
+            } else if (clazz == LocalDate.class) {
+                return LocalDate.of(year, month, day);
+            } else if (clazz == ZonedDateTime.class) {
+                return ZonedDateTime.of(year, month, day, hours, minutes, seconds, nanoSeconds, offset);
+            }
+            return LocalDateTime.of(year, month, day, hours, minutes, seconds, nanoSeconds).toInstant(offset);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static Object castOrException(String value, Class<?> clazz) {
+        try {
+            return CastService.cast(value, clazz);
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+}
@@ -1,32 +1,87 @@
 package com.avisto.jpasearch.service;
 
+import com.avisto.jpasearch.FilterCriteria;
+import com.avisto.jpasearch.OrderCriteria;
+import com.avisto.jpasearch.SearchCriteria;
 import com.avisto.jpasearch.SearchableEntity;
+import com.avisto.jpasearch.cache.SearchCache;
+import com.avisto.jpasearch.cache.SearchCacheListener;
+import com.avisto.jpasearch.config.FilterConfig;
+import com.avisto.jpasearch.config.MultiFilterConfig;
 import com.avisto.jpasearch.exception.FieldNotInCriteriaException;
+import com.avisto.jpasearch.exception.FieldPathNotFoundException;
+import com.avisto.jpasearch.exception.FilterOperationException;
+import com.avisto.jpasearch.exception.WrongCursorException;
 import com.avisto.jpasearch.exception.WrongElementNumberException;
+import com.avisto.jpasearch.model.ConditionOperator;
+import com.avisto.jpasearch.model.CountStrategy;
+import com.avisto.jpasearch.model.FetchStrategy;
+import com.avisto.jpasearch.model.KeysetPage;
 import com.avisto.jpasearch.model.Page;
+import com.avisto.jpasearch.model.Slice;
+import com.avisto.jpasearch.model.SortDirection;
 import com.avisto.jpasearch.model.TestEntity;
 import com.avisto.jpasearch.model.TestEntity.TestEntityInList;
+import com.avisto.jpasearch.operation.ListObjectFilterOperation;
+import com.avisto.jpasearch.operation.ObjectFilterOperation;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 
 import com.avisto.jpasearch.model.CriteriaTestEnum;
 
+import jakarta.persistence.criteria.CompoundSelection;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -159,4 +214,736 @@ public class SearchCriteriaRepositoryTest {
         // Perform the search operation and expect an exception to be thrown
         assertThrows(FieldNotInCriteriaException.class, () -> searchCriteriaRepository.search(CriteriaTestEnum.class, params, sorts, TestEntityInList::new));
     }
+
+    @Test
+    void searchKeyset_withMalformedCursor_shouldThrowWrongCursorException() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+        sorts.add("field1");
+        sorts.add("asc");
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("size", "10");
+
+        // Perform the search operation and expect an exception to be thrown
+        assertThrows(WrongCursorException.class, () -> searchCriteriaRepository.searchKeyset(CriteriaTestEnum.class, params, sorts, "not-a-cursor"));
+    }
+
+    @Test
+    void searchKeyset_withBackwardCursor_shouldSeekBeforeRowOnEveryKeyInReverseOrder() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+        sorts.add("field1");
+        sorts.add("asc");
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("size", "2");
+
+        TestEntity first = new TestEntity();
+        TestEntity second = new TestEntity();
+        List<Tuple> rows = List.of(mockRow(second, "b", 2L), mockRow(first, "a", 1L), mockRow(new TestEntity(), "a", 0L));
+        when(tq.getResultList()).thenReturn(rows);
+        when(cb.createTupleQuery()).thenReturn(cq);
+        String cursor = KeysetCursor.encode(List.of("c", 3L), true);
+
+        // Perform the search operation
+        KeysetPage<TestEntity> page = searchCriteriaRepository.searchKeyset(CriteriaTestEnum.class, params, sorts, cursor);
+
+        // Verify that the sorted field and the id tiebreaker are both sought backward, in the reverse order
+        verify(cb).lessThan(any(), eq("c"));
+        verify(cb).lessThan(any(), eq(3L));
+        verify(cb, never()).greaterThan(any(), any(Comparable.class));
+        verify(tq).setMaxResults(3);
+
+        // Verify that the rows are given back in the requested order, with a cursor on each side
+        assertEquals(List.of(first, second), page.elements());
+        assertEquals(List.of("b", 2L), KeysetCursor.decode(page.nextCursor(), List.of(String.class, Long.class)).getValues());
+        KeysetCursor previousCursor = KeysetCursor.decode(page.previousCursor(), List.of(String.class, Long.class));
+        assert previousCursor.isBackward();
+        assertEquals(List.of("a", 1L), previousCursor.getValues());
+    }
+
+    @Test
+    void keysetCursor_withMultipleColumns_shouldDecodeEncodedValues() {
+        List<Object> values = Arrays.asList("a:b~", null, LocalDate.of(2024, 2, 29), 12L);
+        List<Class<?>> classes = List.of(String.class, Integer.class, LocalDate.class, Long.class);
+
+        KeysetCursor forward = KeysetCursor.decode(KeysetCursor.encode(values, false), classes);
+        KeysetCursor backward = KeysetCursor.decode(KeysetCursor.encode(values, true), classes);
+
+        assertEquals(values, forward.getValues());
+        assert !forward.isBackward();
+        assertEquals(values, backward.getValues());
+        assert backward.isBackward();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'', 2",
+            "'*', 2",
+            "X1:a1:1, 2",
+            "N1:a, 2",
+            "N1:a1:11:2, 2",
+            "N1:ab:1, 2",
+            "N9:a1:1, 2",
+            "N1:a, 1"
+    })
+    void keysetCursor_withMalformedCursor_shouldThrowWrongCursorException(String decoded, int size) {
+        String cursor = decoded.equals("*") ? "*" : Base64.getUrlEncoder().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+        List<Class<?>> classes = size == 2 ? List.of(String.class, Long.class) : List.of(Long.class);
+
+        assertThrows(WrongCursorException.class, () -> KeysetCursor.decode(cursor, classes));
+    }
+
+    @Test
+    void searchSlice_withMoreResultsThanSize_shouldReturnHasNextWithoutCounting() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+        sorts.add("field1");
+        sorts.add("asc");
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "2");
+
+        when(tq.getResultList()).thenReturn(List.of(new TestEntity(), new TestEntity(), new TestEntity()));
+
+        // Perform the search operation
+        Slice<TestEntity> slice = searchCriteriaRepository.searchSlice(CriteriaTestEnum.class, params, sorts);
+
+        // Verify that one more element than the size was fetched and that the count query was not executed
+        verify(tq).setMaxResults(3);
+        verify(tq, never()).getSingleResult();
+
+        // Verify the slice content and pagination information
+        assert slice.elements().size() == 2;
+        assert slice.pageSize() == 2;
+        assert slice.hasNext();
+    }
+
+    @Test
+    void search_withCappedCountStrategy_shouldReturnLowerBoundTotal() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+
+        when(tq.getResultList()).thenReturn(List.of(new TestEntity(), new TestEntity(), new TestEntity()));
+        searchCriteriaRepository.setCountStrategy(CountStrategy.capped(2));
+
+        // Perform the search operation
+        Page<TestEntity> page = searchCriteriaRepository.search(CriteriaTestEnum.class, params, sorts);
+
+        // Verify that the count stopped after the cap and that the exact count query was not executed
+        verify(tq).setMaxResults(3);
+        verify(tq, never()).getSingleResult();
+
+        // Verify that the total is reported as a lower bound
+        assert page.totalElements() == 3L;
+        assert !page.totalExact();
+    }
+
+    @Test
+    void search_withEntityManagerFactory_shouldRunQueriesOnClosedWorkerEntityManagers() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+
+        when(tq.getResultList()).thenReturn(List.of(new TestEntity()));
+        when(tq.getSingleResult()).thenReturn(50L);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        searchCriteriaRepository.setEntityManagerFactory(entityManagerFactory);
+
+        // Perform the search operation
+        Page<TestEntity> page = searchCriteriaRepository.search(CriteriaTestEnum.class, params, sorts);
+
+        // Verify that the page and the count each ran on their own entity manager, closed afterwards
+        verify(entityManagerFactory, times(2)).createEntityManager();
+        verify(entityManager, times(2)).close();
+
+        // Verify the page content and pagination information
+        assert page.elements().size() == 1;
+        assert page.totalElements() == 50L;
+    }
+
+    @Test
+    void stream_withFetchSize_shouldDetachOnlyStreamedEntities() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+
+        List<TestEntity> entities = List.of(new TestEntity(), new TestEntity(), new TestEntity());
+        when(tq.getResultStream()).thenReturn(entities.stream());
+        searchCriteriaRepository.setStreamFetchSize(2);
+
+        // Perform the search operation
+        List<TestEntity> results = new ArrayList<>();
+        try (Stream<TestEntity> stream = searchCriteriaRepository.stream(CriteriaTestEnum.class, params, sorts)) {
+            stream.forEach(entity -> {
+                // The current entity is still managed, the previous one is detached
+                verify(entityManager, never()).detach(entity);
+                results.add(entity);
+            });
+            verify(entityManager, never()).detach(entities.get(2));
+        }
+
+        // Verify that the rows were streamed by batches without being paginated, and detached one by one without clearing
+        verify(tq).setHint("org.hibernate.fetchSize", 2);
+        verify(tq, never()).getResultList();
+        entities.forEach(entity -> verify(entityManager).detach(entity));
+        verify(entityManager, never()).clear();
+        assertEquals(entities, results);
+    }
+
+    @Test
+    void stream_withMapper_shouldDetachEachEntityOnceMapped() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+
+        List<TestEntity> entities = List.of(new TestEntity(), new TestEntity());
+        when(tq.getResultStream()).thenReturn(entities.stream());
+
+        // Perform the search operation, the mapper running while its entity is managed
+        List<TestEntity> mapped = new ArrayList<>();
+        try (Stream<TestEntity> stream = searchCriteriaRepository.stream(CriteriaTestEnum.class, params, new ArrayList<>(), entity -> {
+            verify(entityManager, never()).detach(entity);
+            mapped.add(entity);
+            return entity;
+        })) {
+            stream.forEach(entity -> verify(entityManager).detach(entity));
+        }
+
+        assertEquals(entities, mapped);
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void stream_withJoinedFilter_shouldFilterOnIdSubqueryWithoutDistinct() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+        sorts.add("field1");
+        sorts.add("asc");
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("nestedField", "1");
+
+        when(tq.getResultStream()).thenReturn(Stream.of(new TestEntity()));
+        Subquery<Object> subquery = mock(Subquery.class, RETURNS_SELF);
+        Root<TestEntity> subRoot = mock(Root.class);
+        when(cq.subquery(Object.class)).thenReturn(subquery);
+        when(subquery.from(TestEntity.class)).thenReturn(subRoot);
+        when(subRoot.join(anyString(), any(JoinType.class))).thenReturn(mock(Join.class));
+        Path<Object> idPath = mock(Path.class);
+        Predicate inIds = mock(Predicate.class);
+        Root<TestEntity> root = cq.from(TestEntity.class);
+        when(root.get("id")).thenReturn(idPath);
+        when(idPath.in(subquery)).thenReturn(inIds);
+
+        // Perform the search operation
+        List<TestEntity> results;
+        try (Stream<TestEntity> stream = searchCriteriaRepository.stream(CriteriaTestEnum.class, params, sorts)) {
+            results = stream.toList();
+        }
+
+        // Verify that the collection was joined in the id subquery only, so that the streamed query needs no distinct
+        verify(subRoot).join("nestedList", JoinType.LEFT);
+        verify(root, never()).join(anyString(), any(JoinType.class));
+        verify(cq).where(inIds);
+        verify(cq, never()).distinct(true);
+        assert results.size() == 1;
+    }
+
+    record TestEntityProjection(String field1, Integer field2) {
+    }
+
+    @Test
+    void searchProjection_withRecord_shouldSelectRecordComponentsOnly() {
+        // Init sorts
+        List<String> sorts = new ArrayList<>();
+
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+
+        when(tq.getResultList()).thenReturn(List.of(new TestEntityProjection("value", 1)));
+        when(tq.getSingleResult()).thenReturn(1L);
+
+        // Perform the search operation
+        Page<TestEntityProjection> page = searchCriteriaRepository.searchProjection(CriteriaTestEnum.class, params, sorts, TestEntityProjection.class);
+
+        // Verify that a constructor expression of the two record components was selected instead of the entity
+        verify(cb).construct(eq(TestEntityProjection.class), any(), any());
+        verify(cb, never()).createQuery(TestEntity.class);
+
+        // Verify the page content and pagination information
+        assert page.elements().get(0).field1().equals("value");
+        assert page.totalElements() == 1L;
+    }
+
+    @Test
+    void searchProjection_withNullableAssociation_shouldLeftJoinProjectedAssociation() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+
+        // The second row has no nested entity : it is counted, so it must be projected too
+        when(tq.getResultList()).thenReturn(List.of(new TestEntityProjection("value", 1), new TestEntityProjection("other", null)));
+        when(tq.getSingleResult()).thenReturn(2L);
+        Root<TestEntity> root = cq.from(TestEntity.class);
+        Join<TestEntity, ?> nestedJoin = mock(Join.class);
+        when(root.join("nestedEntity", JoinType.LEFT)).thenReturn((Join) nestedJoin);
+
+        // Perform the search operation
+        Page<TestEntityProjection> page = searchCriteriaRepository.searchProjection(CriteriaTestEnum.class, params, new ArrayList<>(), TestEntityProjection.class, "field1", "nestedEntity.nestedField");
+
+        // Verify that the association was LEFT joined instead of being navigated, which would be an inner join
+        verify(root, times(1)).join("nestedEntity", JoinType.LEFT);
+        verify(nestedJoin).get("nestedField");
+        verify(root, never()).get("nestedEntity");
+
+        // Verify that the page holds every counted row
+        assert page.elements().size() == 2;
+        assert page.elements().get(1).field2() == null;
+        assert page.totalElements() == 2L;
+    }
+
+    @Test
+    void search_withParameterized_shouldRenderOneQueryForDifferentValues() {
+        when(tq.getSingleResult()).thenReturn(1L);
+        when(cb.parameter(any(Class.class))).thenAnswer(invocation -> mock(ParameterExpression.class));
+        Root<TestEntity> root = cq.from(TestEntity.class);
+        when(root.get("field1")).thenReturn(mock(Path.class, "field1"));
+
+        // Without parameters, each value renders its own query
+        List<String> literalQueries = renderSearches("value1", "value2", "value3");
+        assertEquals(List.of("equal(field1, value1)", "equal(field1, value2)", "equal(field1, value3)"), literalQueries);
+        verify(tq, never()).setParameter(any(Parameter.class), any());
+
+        // With parameters, the three searches render the same query and bind their values to its parameters
+        searchCriteriaRepository.setParameterized(true);
+        List<String> parameterizedQueries = renderSearches("value1", "value2", "value3");
+        assertEquals(List.of("equal(field1, ?)", "equal(field1, ?)", "equal(field1, ?)"), parameterizedQueries);
+        ArgumentCaptor<Parameter<Object>> parameters = ArgumentCaptor.forClass(Parameter.class);
+        ArgumentCaptor<Object> values = ArgumentCaptor.forClass(Object.class);
+        // The count query and the page query of each search bind their own parameter
+        verify(tq, times(6)).setParameter(parameters.capture(), values.capture());
+        assertEquals(List.of("value1", "value1", "value2", "value2", "value3", "value3"), values.getAllValues());
+        assertEquals(6, new HashSet<>(parameters.getAllValues()).size());
+    }
+
+    @Test
+    void parameterBinder_withInClause_shouldBindLiteralValuesOfProviderInClause() {
+        CriteriaBuilder.In<Object> in = mock(CriteriaBuilder.In.class);
+        Expression<Object> expression = mock(Expression.class);
+        ParameterExpression<Integer> parameter = mock(ParameterExpression.class);
+        when(cb.in(expression)).thenReturn(in);
+        when(cb.parameter(Integer.class)).thenReturn(parameter);
+        ParameterBinder binder = ParameterBinder.of(cb, true);
+
+        // The clause is the one of the provider, its values are parameters
+        Predicate predicate = ListObjectFilterOperation.IN_EQUAL.calculate(binder.getCriteriaBuilder(), expression, List.of(1, 2));
+        assertSame(in, predicate);
+        verify(in, times(2)).value(parameter);
+        binder.bind(tq);
+        verify(tq).setParameter((Parameter<Object>) (Parameter<?>) parameter, 1);
+        verify(tq).setParameter((Parameter<Object>) (Parameter<?>) parameter, 2);
+    }
+
+    @Test
+    void inEqual_withPlainCriteriaBuilder_shouldLetProviderBindValues() {
+        CriteriaBuilder.In<Object> in = mock(CriteriaBuilder.In.class);
+        Expression<Object> expression = mock(Expression.class);
+        when(cb.in(expression)).thenReturn(in);
+
+        // A plain builder would inline literals : the values are given to the clause as they are
+        Predicate predicate = ListObjectFilterOperation.IN_EQUAL.calculate(ParameterBinder.of(cb, false).getCriteriaBuilder(), expression, List.of(1, 2));
+        assertSame(in, predicate);
+        verify(in).value(1);
+        verify(in).value(2);
+        verify(cb, never()).literal(any());
+    }
+
+    /**
+     * Render the predicates built for each searched value, parameters being rendered as "?" and literals as themselves.
+     */
+    private List<String> renderSearches(String... values) {
+        List<String> renderedQueries = new ArrayList<>();
+        for (String value : values) {
+            Mockito.clearInvocations(cb);
+            Map<String, String> params = new HashMap<>();
+            params.put("field1", value);
+            searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+            // The count query and the page query render the same predicate
+            Set<String> rendered = Mockito.mockingDetails(cb).getInvocations().stream()
+                    .filter(invocation -> invocation.getMethod().getName().equals("equal"))
+                    .map(invocation -> invocation.getMethod().getName() + Arrays.stream(invocation.getArguments())
+                            .map(argument -> argument instanceof ParameterExpression<?> ? "?" : String.valueOf(argument))
+                            .collect(Collectors.joining(", ", "(", ")")))
+                    .collect(Collectors.toSet());
+            assertEquals(1, rendered.size());
+            renderedQueries.add(rendered.iterator().next());
+        }
+        return renderedQueries;
+    }
+
+    @Test
+    void searchPlan_withSameCriteriaShape_shouldReuseCompiledPlan() {
+        SearchCriteria searchCriteria = newSearchCriteria("field1", "value");
+        SearchPlan<TestEntity> plan = SearchPlan.of(CriteriaTestEnum.class, searchCriteria);
+
+        // The same filter and sorter keys share one plan, whatever the filter values
+        assertSame(plan, SearchPlan.of(CriteriaTestEnum.class, newSearchCriteria("field1", "other")));
+        // Other filter keys compile another plan
+        assertNotSame(plan, SearchPlan.of(CriteriaTestEnum.class, newSearchCriteria("field2", "value")));
+
+        // Binding values returns a copy and leaves the shared plan unbound
+        SearchPlan<TestEntity> boundPlan = plan.bind(searchCriteria);
+        assertNotSame(plan, boundPlan);
+        assert plan.getBoundFilters().isEmpty();
+        assert boundPlan.getBoundFilters().size() == 1;
+        assertEquals("value", boundPlan.getBoundFilters().get(0).value());
+        assertSame(plan, SearchPlan.of(CriteriaTestEnum.class, searchCriteria));
+    }
+
+    @Test
+    void search_withSearchCache_shouldReuseResultsUntilEntityChanges() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("field1", "1");
+
+        when(tq.getSingleResult()).thenReturn(1L);
+        SearchCache searchCache = SearchCache.of(10, Duration.ofMinutes(1));
+        SearchCacheListener.register(searchCache);
+        searchCriteriaRepository.setSearchCache(searchCache);
+
+        Function<TestEntity, TestEntityInList> mapper = TestEntityInList::new;
+        try {
+            // Perform the same search twice : the second one is served by the cache
+            searchCriteriaRepository.search(CriteriaTestEnum.class, new HashMap<>(params), new ArrayList<>(), mapper);
+            searchCriteriaRepository.search(CriteriaTestEnum.class, new HashMap<>(params), new ArrayList<>(), mapper);
+            verify(tq, times(1)).getResultList();
+            assert searchCache.getStatistics().hits() == 1L;
+            assert searchCache.getStatistics().misses() == 1L;
+
+            // A change of the root entity invalidates the cached page
+            new SearchCacheListener().onChange(new TestEntity());
+            searchCriteriaRepository.search(CriteriaTestEnum.class, new HashMap<>(params), new ArrayList<>(), mapper);
+            verify(tq, times(2)).getResultList();
+        } finally {
+            SearchCacheListener.unregister(searchCache);
+        }
+    }
+
+    @Test
+    void searchCache_withInvalidationDuringLoad_shouldNotCacheLoadedValue() {
+        SearchCache searchCache = SearchCache.of(10, Duration.ofMinutes(1));
+
+        // The entity changes while the page is loaded : the page may be stale and is not cached
+        assertEquals("stale", searchCache.get("key", TestEntity.class, () -> {
+            searchCache.invalidate(TestEntity.class);
+            return "stale";
+        }));
+        assertEquals("fresh", searchCache.get("key", TestEntity.class, () -> "fresh"));
+        assertEquals("fresh", searchCache.get("key", TestEntity.class, () -> "reloaded"));
+    }
+
+    @Test
+    void search_withCountCache_shouldCountOncePerFilterSet() {
+        when(tq.getSingleResult()).thenReturn(50L);
+        searchCriteriaRepository.setCountCache(SearchCache.of(10, Duration.ofSeconds(30)));
+
+        // Page through and re-sort the same filtered list
+        for (String page : List.of("0", "1")) {
+            for (String direction : List.of("asc", "desc")) {
+                Map<String, String> params = new HashMap<>();
+                params.put("page", page);
+                params.put("size", "10");
+                params.put("field1", "1");
+                Page<TestEntity> result = searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>(List.of("field1", direction)));
+                assert result.totalElements() == 50L;
+            }
+        }
+
+        // Verify that the count query was executed once, and every page query
+        verify(tq, times(1)).getSingleResult();
+        verify(tq, times(4)).getResultList();
+    }
+
+    @Test
+    void search_withAutoFetchStrategy_shouldDeferJoinFromOffsetThreshold() {
+        when(tq.getSingleResult()).thenReturn(5000L);
+        when(cb.createTupleQuery()).thenReturn(cq);
+        searchCriteriaRepository.setFetchStrategy(FetchStrategy.auto(1000));
+
+        // A page before the threshold selects the entities directly
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+        searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+        verify(cb, never()).createTupleQuery();
+
+        // A page after the threshold first pages over the ids, without an entity graph
+        params = new HashMap<>();
+        params.put("page", "100");
+        params.put("size", "10");
+        searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+        verify(cb).createTupleQuery();
+        verify(tq).setFirstResult(1000);
+    }
+
+    @Test
+    void search_withSingleRoundTrip_shouldSelectCountNextToPageRows() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "1");
+        params.put("size", "2");
+
+        TestEntity entity = new TestEntity();
+        Tuple row = mock(Tuple.class);
+        when(row.get(0)).thenReturn(entity);
+        when(row.get(1, Long.class)).thenReturn(42L);
+        when(tq.getResultList()).thenReturn(List.of(row, row));
+        when(cb.createTupleQuery()).thenReturn(cq);
+        when(cq.subquery(Long.class)).thenReturn(mock(Subquery.class, RETURNS_SELF));
+        CompoundSelection<Tuple> selection = mock(CompoundSelection.class);
+        when(cb.tuple(any(Selection.class), any(Selection.class))).thenReturn(selection);
+        searchCriteriaRepository.setSingleRoundTrip(true);
+
+        // Perform the search operation
+        Page<TestEntity> page = searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+
+        // Verify that the rows and their count were selected as a tuple by a single paginated query
+        verify(cq).select(selection);
+        verify(cb).count(any());
+        verify(tq).setFirstResult(2);
+        verify(tq).setMaxResults(2);
+        verify(tq, never()).getSingleResult();
+
+        // Verify that the page is built from the rows and the count they carry
+        assertEquals(List.of(entity, entity), page.elements());
+        assert page.pageNumber() == 1;
+        assert page.totalElements() == 42L;
+    }
+
+    @Test
+    void search_withExistsFilter_shouldFilterInCorrelatedSubqueryWithoutDistinct() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+        params.put("nestedFieldExists", "1");
+
+        when(tq.getSingleResult()).thenReturn(1L);
+        Subquery<Integer> subquery = mock(Subquery.class, RETURNS_SELF);
+        Root<TestEntity> correlatedRoot = mockJoins(subquery);
+
+        // Perform the search operation
+        searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+
+        // Verify that the collection was joined in EXISTS subqueries only, so that the root rows need no distinct
+        verify(correlatedRoot, times(2)).join("nestedList", JoinType.LEFT);
+        verify(cb, times(2)).exists(subquery);
+        verify(cq, never()).distinct(true);
+    }
+
+    @Test
+    void existsFilter_withoutQuery_shouldThrowInsteadOfJoiningRoot() {
+        Root<TestEntity> root = mock(Root.class);
+        FilterConfig<TestEntity, Object> existsFilter = FilterConfig.ofExists("nestedField", ObjectFilterOperation.EQUAL, "nestedList[nestedField]");
+        MultiFilterConfig<TestEntity, Object> existsMultiFilter = MultiFilterConfig.ofExists("nestedFields", FilterConfig.of("nestedField", ObjectFilterOperation.EQUAL, "nestedList[nestedField]"), "nestedList");
+
+        // The repository neither distincts nor counts distinct rows for these filters : joining the root would duplicate them
+        assert !existsFilter.needJoin();
+        assert !existsMultiFilter.needJoin();
+        assertThrows(FilterOperationException.class, () -> existsFilter.getPredicate(TestEntity.class, root, cb, new HashMap<>(), 1));
+        assertThrows(FilterOperationException.class, () -> existsMultiFilter.getPredicate(TestEntity.class, root, cb, new HashMap<>(), (List<String>) (List<?>) List.of(1)));
+        verify(root, never()).join(anyString(), any(JoinType.class));
+    }
+
+    @Test
+    void multiFilter_shouldJoinOncePerValueOnlyForAnd() {
+        Root<TestEntity> root = mock(Root.class);
+        when(root.join(anyString(), any(JoinType.class))).thenReturn(mock(Join.class));
+        FilterConfig<TestEntity, Object> nestedFilter = FilterConfig.of("nestedField", ObjectFilterOperation.EQUAL, "nestedList[nestedField]");
+
+        // Any joined row can match one of the values of an OR, and the next filter on the same path reuses the join of the query
+        Map<String, Join<TestEntity, ?>> joins = new HashMap<>();
+        MultiFilterConfig<TestEntity, Object> orFilter = MultiFilterConfig.of("nestedFields", ConditionOperator.OR, nestedFilter, "nestedList");
+        List<String> values = orFilter.bind(TestEntity.class, orFilter.getEntryClass(TestEntity.class), new String[]{"1", "2", "3"});
+        // The values are cast once, by bind, into the class of the nested field
+        assertEquals(List.of(1, 2, 3), values);
+        orFilter.getPredicate(TestEntity.class, root, cb, joins, values);
+        nestedFilter.getPredicate(TestEntity.class, root, cb, joins, 1);
+        nestedFilter.getPredicate(TestEntity.class, root, cb, joins, 2);
+        verify(root, times(2)).join("nestedList", JoinType.LEFT);
+
+        // Each value of an AND must match its own joined row
+        MultiFilterConfig.of("nestedFields", nestedFilter, "nestedList").getPredicate(TestEntity.class, root, cb, new HashMap<>(), values);
+        verify(root, times(5)).join("nestedList", JoinType.LEFT);
+    }
+
+    @Test
+    void multiFilter_withDottedJoinPath_shouldJoinOnlyLastHopPerAndValue() {
+        Root<TestEntity> root = mock(Root.class);
+        Join<TestEntity, ?> nestedJoin = mock(Join.class);
+        when(root.join("nestedEntity", JoinType.LEFT)).thenReturn((Join) nestedJoin);
+        when(nestedJoin.join(anyString(), any(JoinType.class))).thenReturn(mock(Join.class));
+        FilterConfig<TestEntity, Object> nestedFilter = FilterConfig.of("nestedField", ObjectFilterOperation.EQUAL, "nestedEntity.nestedList[nestedField]");
+        MultiFilterConfig<TestEntity, Object> andFilter = MultiFilterConfig.of("nestedFields", nestedFilter, "nestedEntity.nestedList");
+
+        // Each value of the AND joins its own collection, from the association joined once for the query.
+        // Values are given as bound by the filter, since the joined path is only mocked
+        Map<String, Join<TestEntity, ?>> joins = new HashMap<>();
+        andFilter.getPredicate(TestEntity.class, root, cb, joins, (List<String>) (List<?>) List.of(1, 2));
+        verify(root, times(1)).join("nestedEntity", JoinType.LEFT);
+        verify(nestedJoin, times(2)).join("nestedList", JoinType.LEFT);
+        assertSame(nestedJoin, joins.get("nestedEntity"));
+    }
+
+    @Test
+    void search_withFilter_shouldCastFilterValueOncePerSearch() {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+        params.put("field1", "value");
+
+        when(tq.getSingleResult()).thenReturn(50L);
+
+        // Perform the search operation, which runs a count query and a page query
+        try (MockedStatic<CastService> castService = Mockito.mockStatic(CastService.class, Mockito.CALLS_REAL_METHODS)) {
+            searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+
+            // Verify that both queries were built from the same bound value
+            verify(tq).getSingleResult();
+            castService.verify(() -> CastService.cast("value", String.class), times(1));
+        }
+    }
+
+    @Test
+    void search_withMetamodel_shouldSortThroughResolvedAttributes() {
+        Metamodel metamodel = mock(Metamodel.class);
+        ManagedType<TestEntity> entityType = mock(ManagedType.class);
+        SingularAttribute<TestEntity, Long> idAttribute = mockAttribute(Long.class);
+        SingularAttribute<TestEntity, String> field1Attribute = mockAttribute(String.class);
+        when(metamodel.managedType(TestEntity.class)).thenReturn(entityType);
+        when(entityType.getAttribute("id")).thenReturn((Attribute) idAttribute);
+        when(entityType.getAttribute("field1")).thenReturn((Attribute) field1Attribute);
+        when(tq.getSingleResult()).thenReturn(1L);
+        searchCriteriaRepository.setMetamodel(metamodel);
+
+        // Perform the search operation
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+        searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>(List.of("field1", "asc")));
+
+        // Verify that the sorter was resolved through the metamodel, and ordered through its attribute handle
+        Root<TestEntity> root = cq.from(TestEntity.class);
+        verify(root).get(field1Attribute);
+        verify(root, never()).get("field1");
+    }
+
+    @Test
+    void metamodelPathResolver_shouldBeSharedPerMetamodelAndRejectCollectionHops() {
+        // Repositories given the same metamodel share one resolver, hence the same cached plans
+        Metamodel metamodel = mock(Metamodel.class);
+        assertSame(MetamodelPathResolver.of(metamodel), MetamodelPathResolver.of(metamodel));
+
+        // A collection cannot be navigated without a join
+        PluralAttribute<TestEntity, ?, ?> collectionAttribute = mock(PluralAttribute.class);
+        AttributePath collectionPath = new AttributePath(List.of(collectionAttribute), Integer.class);
+        assertThrows(FieldPathNotFoundException.class, () -> collectionPath.get(mock(Root.class)));
+    }
+
+    private static <X> SingularAttribute<TestEntity, X> mockAttribute(Class<X> javaType) {
+        SingularAttribute<TestEntity, X> attribute = mock(SingularAttribute.class);
+        Type<X> type = mock(Type.class);
+        when(type.getJavaType()).thenReturn(javaType);
+        when(attribute.getType()).thenReturn(type);
+        return attribute;
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'', false",
+            "field1, false",
+            "nestedFieldExists, false",
+            "nestedField, true"
+    })
+    void search_withFilterShape_shouldCountDistinctOnlyWhenJoining(String filterKey, boolean countDistinct) {
+        // Init params
+        Map<String, String> params = new HashMap<>();
+        params.put("page", "0");
+        params.put("size", "10");
+        if (!filterKey.isEmpty()) {
+            params.put(filterKey, "1");
+        }
+
+        when(tq.getSingleResult()).thenReturn(1L);
+        mockJoins(mock(Subquery.class, RETURNS_SELF));
+
+        // Perform the search operation
+        searchCriteriaRepository.search(CriteriaTestEnum.class, params, new ArrayList<>());
+
+        // Verify the count emitted for this shape of filters
+        if (countDistinct) {
+            verify(cb).countDistinct(any());
+            verify(cb, never()).count(any());
+        } else {
+            verify(cb).count(any());
+            verify(cb, never()).countDistinct(any());
+        }
+    }
+
+    /**
+     * Build a search criteria filtering on one key, sorted by field1.
+     */
+    private SearchCriteria newSearchCriteria(String filterKey, String value) {
+        SearchCriteria searchCriteria = new SearchCriteria();
+        searchCriteria.setFilters(Set.of(new FilterCriteria(filterKey, new String[]{value})));
+        searchCriteria.setSorts(List.of(new OrderCriteria("field1", SortDirection.ASC)));
+        return searchCriteria;
+    }
+
+    /**
+     * Build a row of a keyset query : the entity, then the values of its keys.
+     */
+    private Tuple mockRow(TestEntity entity, Object... keys) {
+        Tuple row = mock(Tuple.class);
+        when(row.get(0)).thenReturn(entity);
+        for (int i = 0; i < keys.length; i++) {
+            when(row.get(i + 1)).thenReturn(keys[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Let the root of the query and the root correlated by the given subquery be joined.
+     */
+    private Root<TestEntity> mockJoins(Subquery<Integer> subquery) {
+        Root<TestEntity> correlatedRoot = mock(Root.class);
+        when(cq.subquery(Integer.class)).thenReturn(subquery);
+        when(subquery.correlate(any(Root.class))).thenReturn(correlatedRoot);
+        when(correlatedRoot.join(anyString(), any(JoinType.class))).thenReturn(mock(Join.class));
+        Root<TestEntity> root = cq.from(TestEntity.class);
+        when(root.join(anyString(), any(JoinType.class))).thenReturn(mock(Join.class));
+        return correlatedRoot;
+    }
 }
@@ -1,11 +1,19 @@
 package com.avisto.jpasearch.service;
 
+import com.avisto.jpasearch.exception.FieldNotInCriteriaException;
 import com.avisto.jpasearch.exception.FieldPathNotFoundException;
+import com.avisto.jpasearch.model.CriteriaTestEnum;
 import com.avisto.jpasearch.model.TestEntity;
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -26,6 +34,10 @@ public class SearchUtilsTest {
         String[] nestedPaths = {"nestedEntity", "nestedField"};
         Class<?> nestedEntityClass = SearchUtils.getEntityClass(TestEntity.class, nestedPaths);
         assertEquals(Integer.class, nestedEntityClass);
+
+        // Test a dotted path, resolved the same way as its split form
+        assertEquals(Integer.class, SearchUtils.getEntityClass(TestEntity.class, "nestedEntity.nestedField"));
+        assertEquals(Integer.class, SearchUtils.getEntityClass(TestEntity.class, "nestedList[nestedField]"));
     }
 
     @Test
@@ -33,6 +45,8 @@ public class SearchUtilsTest {
         // Test a field path that does not exist in the class structure
         String[] invalidPaths = {"nonExistentField"};
         assertThrows(FieldPathNotFoundException.class, () -> SearchUtils.getEntityClass(TestEntity.class, invalidPaths));
+        // A missing path is not cached and keeps failing
+        assertThrows(FieldPathNotFoundException.class, () -> SearchUtils.getEntityClass(TestEntity.class, "nonExistentField"));
     }
 
     @Test
@@ -44,6 +58,38 @@ public class SearchUtilsTest {
         assertEquals(expectedOutput, normalized);
     }
 
+    @Test
+    public void testNormalizeAccentsAndDashes_SameAsFullDecomposition() {
+        // Plain ASCII, the Latin table range, combining marks, dashes, and characters beyond the table
+        String[] alphabets = {"abcXYZ019 -_&'", "\u00e9\u00e8\u00ea\u00e0\u00e7\u00f1\u00c6\u00d8\u00df\u0141\u0142\u0153\u01c4\u01ec\u024f",
+                "\u0301\u0308\u0327\u0338", "\u2010\u2013\u2014\u2e3a\u301c\ufe63", "\u1e9e\u0391\u03ac\u0439\u4e2d\ud83d\ude00"};
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(12);
+            // Most inputs only use the first alphabets, as most filter values do
+            int alphabetCount = 1 + random.nextInt(alphabets.length);
+            for (int j = 0; j < length; j++) {
+                String alphabet = alphabets[random.nextInt(alphabetCount)];
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expected = SearchUtils.stripAccents(Normalizer.normalize(input, Normalizer.Form.NFD).replaceAll("\\p{Pd}", "-"));
+            assertEquals(expected, SearchUtils.normalizeAccentsAndDashes(input.toString()), input.toString());
+        }
+        for (char c = 0; c < 0x250; c++) {
+            String input = "x" + c + "y";
+            String expected = SearchUtils.stripAccents(Normalizer.normalize(input, Normalizer.Form.NFD).replaceAll("\\p{Pd}", "-"));
+            assertEquals(expected, SearchUtils.normalizeAccentsAndDashes(input));
+        }
+    }
+
+    @Test
+    public void testSplitPath() {
+        assertEquals(List.of("nestedEntity", "nestedField"), List.of(SearchUtils.splitPath("nestedEntity.nestedField")));
+        assertEquals(0, SearchUtils.splitPath(null).length);
+        assertEquals(0, SearchUtils.splitPath(" ").length);
+    }
+
     @Test
     public void testToRootLowerCase() {
         String input = "This IS A tEST String";
@@ -76,4 +122,31 @@ public class SearchUtilsTest {
         String nullString = null;
         assertTrue(SearchUtils.isBlank(nullString));
     }
+
+    @Test
+    public void testCriteriaRegistry() {
+        CriteriaRegistry<TestEntity> registry = CriteriaRegistry.of(CriteriaTestEnum.class);
+
+        // A filter sorter is indexed both as a filter and as a sorter, the other filters only as filters
+        assertSame(CriteriaTestEnum.FIELD1.getSearchConfig(), registry.findFilter("field1"));
+        assertSame(CriteriaTestEnum.FIELD1.getSearchConfig(), registry.findSorter("field1"));
+        assertSame(CriteriaTestEnum.FIELD2.getSearchConfig(), registry.findFilter("field2"));
+        assertNull(registry.findSorter("field2"));
+        assertFalse(registry.hasDuplicateKeys());
+        assertSame(registry, CriteriaRegistry.of(CriteriaTestEnum.class));
+        assertThrows(FieldNotInCriteriaException.class, () -> registry.getSorters(List.of("field2")));
+    }
+
+    @Test
+    public void testPadToBucketSize() {
+        // Lists are padded to the next power of two by repeating their last value
+        assertEquals(List.of("a"), SearchUtils.padToBucketSize(List.of("a")));
+        assertEquals(List.of("a", "b", "c", "c"), SearchUtils.padToBucketSize(List.of("a", "b", "c")));
+        assertEquals(8, SearchUtils.padToBucketSize(List.of(1, 2, 3, 4, 5)).size());
+        assertEquals(List.of(1, 2, 3, 4), SearchUtils.padToBucketSize(List.of(1, 2, 3, 4)));
+
+        // Large lists are left as they are
+        List<Integer> largeList = Collections.nCopies(SearchConstants.Limits.MAX_PADDED_LIST_SIZE + 1, 1);
+        assertEquals(largeList.size(), SearchUtils.padToBucketSize(largeList).size());
+    }
 }